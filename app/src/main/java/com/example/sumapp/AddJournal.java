@@ -0,0 +1,327 @@
+package com.example.sumapp;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Journal des ajouts du jour : chaque ajout, annulation ou import y est
+// ajouté à la fin avec son heure, dès qu'il a lieu, et il est sur le
+// stockage quand recordCount(), recordEnd(), recordImport() ou undo()
+// rendent la main (fichier ouvert en mode "rwd"). Les compteurs du jour
+// sont rejoués depuis ce fichier au démarrage (ils survivent à un arrêt
+// brutal avant l'écriture des préférences) et les ajouts non annulés du
+// jour forment une pile d'annulation sans limite.
+// Le fichier commence par un instantané (compteurs avant le premier ajout
+// encore annulable) ; il est réécrit à chaque nouveau jour et dès que les
+// événements morts dominent, pour borner le temps de relecture
+public class AddJournal {
+
+    public static final int TYPE_SNAPSHOT = 0;
+    public static final int TYPE_ADD_COUNT = 1;
+    public static final int TYPE_ADD_END = 2;
+    public static final int TYPE_UNDO = 3;
+    public static final int TYPE_IMPORT = 4;
+
+    // Pas de jour enregistré (journal vide)
+    public static final int NO_DAY = Integer.MIN_VALUE;
+
+    private static final int FORMAT_VERSION = 1;
+    // type (1) + jour (4) + flèches (4) + points (4) + flèches notées (4) + heure (8)
+    private static final int RECORD_SIZE = 25;
+    // Compaction quand le fichier dépasse ce nombre d'événements et le double des ajouts annulables
+    private static final int COMPACT_MIN_RECORDS = 128;
+
+    // Un journal par archer (voir ArcherProfiles)
+    private static final Map<Integer, AddJournal> instances = new HashMap<>();
+
+    // Événement du journal. SNAPSHOT : compteurs de base du jour ;
+    // IMPORT : nombre de jours importés dans arrows, premier et dernier jour dans points et scored
+    public static class Event {
+        public final int type;
+        public final int day;
+        public final int arrows;
+        public final int points;
+        public final int scored;
+        public final long timestamp;
+
+        Event(int type, int day, int arrows, int points, int scored, long timestamp) {
+            this.type = type;
+            this.day = day;
+            this.arrows = arrows;
+            this.points = points;
+            this.scored = scored;
+            this.timestamp = timestamp;
+        }
+    }
+
+    private final File file;
+    // Jour courant et compteurs de l'instantané
+    private int day = NO_DAY;
+    private int baseArrows;
+    private int basePoints;
+    private int baseScored;
+    // Ajouts du jour encore annulables, du plus ancien au plus récent
+    private final List<Event> undoStack = new ArrayList<>();
+    private int arrows;
+    private int points;
+    private int scored;
+    // Événements dans le fichier (instantané compris) et taille valide du fichier
+    private int recordCount;
+    private long fileLength = 1;
+    // Fichier ouvert pour les ajouts, null jusqu'au premier (ou après une compaction)
+    private RandomAccessFile out;
+
+    // À appeler hors du thread principal : rejoue le fichier au premier appel
+    public static synchronized AddJournal getInstance(Context context, int archerId) {
+        AddJournal instance = instances.get(archerId);
+        if (instance == null) {
+            instance = new AddJournal(new File(context.getApplicationContext().getFilesDir(),
+                    ArcherProfiles.journalFileName(archerId)));
+            instance.load();
+            instances.put(archerId, instance);
+        }
+        return instance;
+    }
+
+    private AddJournal(File file) {
+        this.file = file;
+    }
+
+    public synchronized int getDay() {
+        return day;
+    }
+
+    // Compteurs du jour après rejeu de tous les événements
+    public synchronized int getArrows() {
+        return arrows;
+    }
+
+    public synchronized int getPoints() {
+        return points;
+    }
+
+    public synchronized int getScoredArrows() {
+        return scored;
+    }
+
+    public synchronized int getUndoDepth() {
+        return undoStack.size();
+    }
+
+    // Nouveau jour (ou premier usage) : le fichier repart d'un instantané de ces compteurs
+    public synchronized void startDay(int newDay, int dayArrows, int dayPoints, int dayScored) {
+        day = newDay;
+        baseArrows = dayArrows;
+        basePoints = dayPoints;
+        baseScored = dayScored;
+        undoStack.clear();
+        recount();
+        compact();
+    }
+
+    public synchronized void recordCount(int eventDay, int count) {
+        append(new Event(TYPE_ADD_COUNT, eventDay, count, 0, 0, System.currentTimeMillis()));
+    }
+
+    public synchronized void recordEnd(int eventDay, int count, int endPoints) {
+        append(new Event(TYPE_ADD_END, eventDay, count, endPoints, count, System.currentTimeMillis()));
+    }
+
+    // Les jours importés sont écrits dans l'historique : l'import est journalisé
+    // mais ne change pas les compteurs du jour et ne s'annule pas
+    public synchronized void recordImport(int fromDay, int toDay, int dayCount) {
+        append(new Event(TYPE_IMPORT, day, dayCount, fromDay, toDay, System.currentTimeMillis()));
+    }
+
+    // Annule le dernier ajout du jour et le renvoie, null si rien à annuler
+    public synchronized Event undo() {
+        if (undoStack.isEmpty()) {
+            return null;
+        }
+        Event undone = undoStack.get(undoStack.size() - 1);
+        append(new Event(TYPE_UNDO, day, 0, 0, 0, System.currentTimeMillis()));
+        return undone;
+    }
+
+    private void append(Event event) {
+        apply(event);
+        if (recordCount > COMPACT_MIN_RECORDS && recordCount > 2 * (undoStack.size() + 1)) {
+            // Surtout des annulations et des imports : on repart de l'état courant
+            compact();
+            return;
+        }
+        byte[] record = new byte[RECORD_SIZE];
+        encode(event, record, 0);
+        // Écriture synchrone de 25 octets : un ajout affiché survit à un arrêt brutal
+        writeRecord(fileLength, record);
+        fileLength += RECORD_SIZE;
+        recordCount++;
+    }
+
+    // Effet d'un événement sur l'état en mémoire (ajout, annulation et rejeu)
+    private void apply(Event event) {
+        switch (event.type) {
+            case TYPE_SNAPSHOT:
+                day = event.day;
+                baseArrows = event.arrows;
+                basePoints = event.points;
+                baseScored = event.scored;
+                undoStack.clear();
+                break;
+            case TYPE_ADD_COUNT:
+            case TYPE_ADD_END:
+                if (event.day > day) {
+                    // Premier ajout d'un nouveau jour : compteurs remis à zéro
+                    day = event.day;
+                    baseArrows = 0;
+                    basePoints = 0;
+                    baseScored = 0;
+                    undoStack.clear();
+                }
+                undoStack.add(event);
+                break;
+            case TYPE_UNDO:
+                if (!undoStack.isEmpty()) {
+                    undoStack.remove(undoStack.size() - 1);
+                }
+                break;
+            default:
+                break;
+        }
+        recount();
+    }
+
+    private void recount() {
+        arrows = baseArrows;
+        points = basePoints;
+        scored = baseScored;
+        for (Event event : undoStack) {
+            arrows += event.arrows;
+            points += event.points;
+            scored += event.scored;
+        }
+    }
+
+    // Réécrit le fichier : instantané des compteurs de base puis ajouts annulables
+    private void compact() {
+        byte[] data = new byte[1 + (undoStack.size() + 1) * RECORD_SIZE];
+        data[0] = FORMAT_VERSION;
+        encode(new Event(TYPE_SNAPSHOT, day, baseArrows, basePoints, baseScored, System.currentTimeMillis()), data, 1);
+        for (int i = 0; i < undoStack.size(); i++) {
+            encode(undoStack.get(i), data, 1 + (i + 1) * RECORD_SIZE);
+        }
+        recordCount = undoStack.size() + 1;
+        fileLength = data.length;
+        // Synchrone lui aussi : les ajouts suivants s'écrivent dans le nouveau fichier
+        rewrite(data);
+    }
+
+    private static void encode(Event event, byte[] data, int position) {
+        data[position] = (byte) event.type;
+        putInt(data, position + 1, event.day);
+        putInt(data, position + 5, event.arrows);
+        putInt(data, position + 9, event.points);
+        putInt(data, position + 13, event.scored);
+        putInt(data, position + 17, (int) (event.timestamp >>> 32));
+        putInt(data, position + 21, (int) event.timestamp);
+    }
+
+    private static void putInt(byte[] data, int position, int value) {
+        data[position] = (byte) (value >>> 24);
+        data[position + 1] = (byte) (value >>> 16);
+        data[position + 2] = (byte) (value >>> 8);
+        data[position + 3] = (byte) value;
+    }
+
+    private static int getInt(byte[] data, int position) {
+        return (data[position] & 0xFF) << 24 | (data[position + 1] & 0xFF) << 16
+                | (data[position + 2] & 0xFF) << 8 | (data[position + 3] & 0xFF);
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        byte[] data;
+        try {
+            data = ScoreLog.readFully(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (data.length == 0 || data[0] != FORMAT_VERSION) {
+            return;
+        }
+
+        int position = 1;
+        // Un événement incomplet en fin de fichier (arrêt pendant l'écriture) est ignoré
+        while (position + RECORD_SIZE <= data.length) {
+            long timestamp = (long) getInt(data, position + 17) << 32 | (getInt(data, position + 21) & 0xFFFFFFFFL);
+            apply(new Event(data[position], getInt(data, position + 1), getInt(data, position + 5),
+                    getInt(data, position + 9), getInt(data, position + 13), timestamp));
+            recordCount++;
+            position += RECORD_SIZE;
+        }
+        // Les ajouts suivants écrasent une éventuelle fin incomplète
+        fileLength = position;
+    }
+
+    // Écrit l'événement à sa position, et l'en-tête avant le premier. En mode "rwd",
+    // write() ne revient qu'une fois les octets sur le stockage (survit à une coupure)
+    private void writeRecord(long offset, byte[] record) {
+        try {
+            if (out == null) {
+                out = new RandomAccessFile(file, "rwd");
+                // Une fin incomplète laissée par un arrêt brutal est écartée une fois
+                out.setLength(offset);
+            }
+            if (offset == 1) {
+                out.seek(0);
+                out.write(FORMAT_VERSION);
+            }
+            out.seek(offset);
+            out.write(record);
+        } catch (IOException e) {
+            e.printStackTrace();
+            closeOutput();
+        }
+    }
+
+    private void closeOutput() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            out = null;
+        }
+    }
+
+    // Nouveau fichier complet, synchronisé puis remplacé d'un coup par renommage
+    private void rewrite(byte[] data) {
+        closeOutput();
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            RandomAccessFile out = new RandomAccessFile(temp, "rw");
+            try {
+                out.setLength(0);
+                out.write(data);
+                out.getFD().sync();
+            } finally {
+                out.close();
+            }
+            if (!temp.renameTo(file)) {
+                throw new IOException("Impossible de remplacer " + file);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
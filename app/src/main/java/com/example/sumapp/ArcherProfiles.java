@@ -0,0 +1,87 @@
+package com.example.sumapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+// Profils des archers du club : chaque archer a sa propre partition
+// (historique SQLite, journal des scores, préférences et objectifs).
+// L'archer 0 garde les noms de fichiers d'origine : les données existantes
+// deviennent les siennes sans migration. Une partition n'est chargée
+// qu'à sa première utilisation
+public class ArcherProfiles {
+
+    public static final int DEFAULT_ARCHER = 0;
+
+    private static final String PREFS_NAME = "SumAppArchers";
+    private static final String KEY_ACTIVE_ARCHER = "activeArcher";
+    private static final String KEY_ARCHER_IDS = "archerIds"; // "0,3,5"
+    private static final String KEY_NEXT_ID = "nextArcherId";
+    private static final String KEY_NAME_PREFIX = "name_";
+
+    private static final String DEFAULT_NAME = "Archer principal";
+
+    private ArcherProfiles() {
+    }
+
+    static SharedPreferences getPrefs(Context context) {
+        return context.getApplicationContext().getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    public static int getActiveArcherId(Context context) {
+        return getPrefs(context).getInt(KEY_ACTIVE_ARCHER, DEFAULT_ARCHER);
+    }
+
+    // commit() : l'écran principal est recréé juste après sur ce profil
+    public static void setActiveArcherId(Context context, int archerId) {
+        getPrefs(context).edit().putInt(KEY_ACTIVE_ARCHER, archerId).commit();
+    }
+
+    public static int[] getArcherIds(Context context) {
+        String ids = getPrefs(context).getString(KEY_ARCHER_IDS, String.valueOf(DEFAULT_ARCHER));
+        String[] parts = ids.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i]);
+        }
+        return result;
+    }
+
+    public static String getName(Context context, int archerId) {
+        String name = getPrefs(context).getString(KEY_NAME_PREFIX + archerId, null);
+        return name != null ? name : archerId == DEFAULT_ARCHER ? DEFAULT_NAME : "Archer " + archerId;
+    }
+
+    // Crée un profil vide (aucun fichier avant le premier enregistrement) et renvoie son identifiant
+    public static int addArcher(Context context, String name) {
+        SharedPreferences prefs = getPrefs(context);
+        int id = Math.max(prefs.getInt(KEY_NEXT_ID, 1), 1);
+        String ids = prefs.getString(KEY_ARCHER_IDS, String.valueOf(DEFAULT_ARCHER));
+        prefs.edit()
+                .putString(KEY_ARCHER_IDS, ids + "," + id)
+                .putInt(KEY_NEXT_ID, id + 1)
+                .putString(KEY_NAME_PREFIX + id, name)
+                .commit();
+        return id;
+    }
+
+    // Noms des fichiers de la partition d'un archer
+    public static String prefsName(int archerId) {
+        return archerId == DEFAULT_ARCHER ? "SumAppPrefs" : "SumAppPrefs_" + archerId;
+    }
+
+    public static String prefsName(Context context) {
+        return prefsName(getActiveArcherId(context));
+    }
+
+    public static String historyDatabaseName(int archerId) {
+        return archerId == DEFAULT_ARCHER ? "arrow_history.db" : "arrow_history_" + archerId + ".db";
+    }
+
+    public static String scoreLogFileName(int archerId) {
+        return archerId == DEFAULT_ARCHER ? "score_log.bin" : "score_log_" + archerId + ".bin";
+    }
+
+    public static String journalFileName(int archerId) {
+        return archerId == DEFAULT_ARCHER ? "add_journal.bin" : "add_journal_" + archerId + ".bin";
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.sumapp;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+// Classements du club : chaque archer publie un petit résumé (flèches de la
+// semaine, points et flèches notées du mois) tiré de ses totaux pré-agrégés.
+// Classer tout le club ne lit que ces résumés, jamais les historiques
+public class ClubLeaderboard {
+
+    private static final String KEY_WEEK = "week_";
+    private static final String KEY_WEEK_ARROWS = "weekArrows_";
+    private static final String KEY_MONTH = "month_";
+    private static final String KEY_MONTH_POINTS = "monthPoints_";
+    private static final String KEY_MONTH_SCORED = "monthScored_";
+
+    public static class Entry {
+        public final int archerId;
+        public final String name;
+        public final float value;
+
+        Entry(int archerId, String name, float value) {
+            this.archerId = archerId;
+            this.name = name;
+            this.value = value;
+        }
+    }
+
+    private static final Comparator<Entry> BEST_FIRST = new Comparator<Entry>() {
+        @Override
+        public int compare(Entry a, Entry b) {
+            return Float.compare(b.value, a.value);
+        }
+    };
+
+    private ClubLeaderboard() {
+    }
+
+    // Thread d'E/S, à chaque écriture des données de l'archer : O(1) + O(log n)
+    public static void publish(Context context, int archerId, HistorySnapshot snapshot, ScoreLog scoreLog) {
+        int today = DateCodec.today();
+        int week = PeriodRollups.keyOf(PeriodRollups.WEEK, today);
+        int month = PeriodRollups.keyOf(PeriodRollups.MONTH, today);
+        long weekArrows = snapshot.getRollups().total(PeriodRollups.WEEK, week);
+        ScoreHistogram monthScores = scoreLog.histogram(DateCodec.startOfMonth(today), DateCodec.endOfMonth(today));
+
+        SharedPreferences prefs = ArcherProfiles.getPrefs(context);
+        if (prefs.getInt(KEY_WEEK + archerId, 0) == week
+                && prefs.getLong(KEY_WEEK_ARROWS + archerId, -1) == weekArrows
+                && prefs.getInt(KEY_MONTH + archerId, 0) == month
+                && prefs.getLong(KEY_MONTH_POINTS + archerId, -1) == monthScores.getPoints()
+                && prefs.getInt(KEY_MONTH_SCORED + archerId, -1) == monthScores.getTotal()) {
+            return; // Résumé inchangé
+        }
+        prefs.edit()
+                .putInt(KEY_WEEK + archerId, week)
+                .putLong(KEY_WEEK_ARROWS + archerId, weekArrows)
+                .putInt(KEY_MONTH + archerId, month)
+                .putLong(KEY_MONTH_POINTS + archerId, monthScores.getPoints())
+                .putInt(KEY_MONTH_SCORED + archerId, monthScores.getTotal())
+                .apply();
+    }
+
+    // Flèches tirées cette semaine, du plus grand total au plus petit
+    public static List<Entry> weeklyArrows(Context context) {
+        SharedPreferences prefs = ArcherProfiles.getPrefs(context);
+        int week = PeriodRollups.keyOf(PeriodRollups.WEEK, DateCodec.today());
+        List<Entry> entries = new ArrayList<>();
+        for (int archerId : ArcherProfiles.getArcherIds(context)) {
+            // Résumé d'une semaine passée : rien tiré cette semaine
+            long arrows = prefs.getInt(KEY_WEEK + archerId, 0) == week
+                    ? prefs.getLong(KEY_WEEK_ARROWS + archerId, 0) : 0;
+            entries.add(new Entry(archerId, ArcherProfiles.getName(context, archerId), arrows));
+        }
+        Collections.sort(entries, BEST_FIRST);
+        return entries;
+    }
+
+    // Moyenne par flèche notée ce mois-ci, archers sans score exclus
+    public static List<Entry> monthlyAverageScore(Context context) {
+        SharedPreferences prefs = ArcherProfiles.getPrefs(context);
+        int month = PeriodRollups.keyOf(PeriodRollups.MONTH, DateCodec.today());
+        List<Entry> entries = new ArrayList<>();
+        for (int archerId : ArcherProfiles.getArcherIds(context)) {
+            int scored = prefs.getInt(KEY_MONTH_SCORED + archerId, 0);
+            if (prefs.getInt(KEY_MONTH + archerId, 0) != month || scored == 0) {
+                continue;
+            }
+            float average = (float) prefs.getLong(KEY_MONTH_POINTS + archerId, 0) / scored;
+            entries.add(new Entry(archerId, ArcherProfiles.getName(context, archerId), average));
+        }
+        Collections.sort(entries, BEST_FIRST);
+        return entries;
+    }
+}
@@ -0,0 +1,217 @@
+package com.example.sumapp;
+
+import android.content.ContentResolver;
+import android.database.Cursor;
+import android.net.Uri;
+import android.provider.OpenableColumns;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Import de plusieurs fichiers CSV en une fois : chaque fichier est lu par
+// son propre CsvImporter sur un petit pool de threads, puis les historiques
+// triés de chaque fichier sont fusionnés en un seul (fusion à k voies).
+// Un jour présent dans plusieurs fichiers prend la valeur du dernier fichier
+// sélectionné, comme un import qui en remplacerait un autre
+public class CsvBatchImport {
+
+    // Lectures simultanées au plus : au-delà, le stockage limite plus que le processeur
+    private static final int MAX_PARALLEL_FILES = 4;
+
+    public interface Listener {
+        // Threads du pool : octets lus sur l'ensemble des fichiers (total -1 si inconnu)
+        void onProgress(long bytesRead, long totalBytes);
+
+        // Thread du pool, une fois tous les fichiers lus (ou l'import annulé)
+        void onFinished(CsvBatchImport batch);
+    }
+
+    private final ContentResolver resolver;
+    private final List<Uri> uris;
+    private final Listener listener;
+    private final CsvImporter[] importers;
+    private final DayHistory[] results;
+    private final String[] errors;
+    private final long[] fileSizes;
+    private final long[] bytesRead;
+    private final AtomicInteger remaining;
+    private volatile boolean cancelled;
+    private DayHistory merged;
+
+    public CsvBatchImport(ContentResolver resolver, List<Uri> uris, Listener listener) {
+        this.resolver = resolver;
+        this.uris = new ArrayList<>(uris);
+        this.listener = listener;
+        int files = uris.size();
+        importers = new CsvImporter[files];
+        results = new DayHistory[files];
+        errors = new String[files];
+        fileSizes = new long[files];
+        // Taille inconnue tant que le fichier n'est pas ouvert : pas de pourcentage avant
+        Arrays.fill(fileSizes, -1);
+        bytesRead = new long[files];
+        remaining = new AtomicInteger(files);
+    }
+
+    public void start() {
+        int threads = Math.max(1, Math.min(uris.size(),
+                Math.min(MAX_PARALLEL_FILES, Runtime.getRuntime().availableProcessors())));
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "SumAppImport-" + threadNumber.incrementAndGet());
+            }
+        });
+        for (int i = 0; i < uris.size(); i++) {
+            final int file = i;
+            pool.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        readFile(file);
+                    } finally {
+                        // Le dernier fichier terminé fusionne et prévient l'appelant, même
+                        // après une exception : sinon la boîte de progression reste affichée
+                        if (remaining.decrementAndGet() == 0) {
+                            try {
+                                if (!cancelled) {
+                                    merged = HistoryMerge.mergeAll(results);
+                                }
+                            } finally {
+                                listener.onFinished(CsvBatchImport.this);
+                            }
+                        }
+                    }
+                }
+            });
+        }
+        // Les tâches en file sont exécutées, puis les threads s'arrêtent
+        pool.shutdown();
+    }
+
+    // Peut être appelé depuis n'importe quel thread
+    public void cancel() {
+        cancelled = true;
+        synchronized (importers) {
+            for (CsvImporter importer : importers) {
+                if (importer != null) {
+                    importer.cancel();
+                }
+            }
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getFileCount() {
+        return uris.size();
+    }
+
+    // Historique fusionné de tous les fichiers lus (null si annulé)
+    public DayHistory getMerged() {
+        return merged;
+    }
+
+    public int getImportedRows() {
+        int rows = 0;
+        for (CsvImporter importer : importers) {
+            if (importer != null) {
+                rows += importer.getImportedRows();
+            }
+        }
+        return rows;
+    }
+
+    // Messages d'erreur des fichiers illisibles
+    public List<String> getErrors() {
+        List<String> messages = new ArrayList<>();
+        for (String error : errors) {
+            if (error != null) {
+                messages.add(error);
+            }
+        }
+        return messages;
+    }
+
+    private void readFile(final int file) {
+        if (cancelled) {
+            return;
+        }
+        Uri uri = uris.get(file);
+        CsvImporter importer = new CsvImporter(new CsvImporter.ProgressListener() {
+            @Override
+            public void onProgress(long read, long totalBytes) {
+                reportProgress(file, read);
+            }
+        });
+        synchronized (importers) {
+            importers[file] = importer;
+        }
+        if (cancelled) {
+            return;
+        }
+        try {
+            InputStream inputStream = resolver.openInputStream(uri);
+            if (inputStream == null) {
+                errors[file] = "Impossible de lire " + uri.getLastPathSegment();
+                return;
+            }
+            try {
+                long size = queryFileSize(uri);
+                synchronized (bytesRead) {
+                    fileSizes[file] = size;
+                }
+                results[file] = importer.importData(inputStream, size);
+            } finally {
+                inputStream.close();
+            }
+        } catch (IOException | RuntimeException e) {
+            // RuntimeException : autorisation d'accès révoquée (SecurityException), fournisseur défaillant...
+            e.printStackTrace();
+            errors[file] = "Erreur lors de la lecture de " + uri.getLastPathSegment() + " : " + e.getMessage();
+        }
+    }
+
+    private void reportProgress(int file, long read) {
+        long totalRead = 0;
+        long totalBytes = 0;
+        synchronized (bytesRead) {
+            bytesRead[file] = read;
+            for (int i = 0; i < bytesRead.length; i++) {
+                totalRead += bytesRead[i];
+                if (fileSizes[i] < 0 || totalBytes < 0) {
+                    // Une taille inconnue : progression en octets seulement
+                    totalBytes = -1;
+                } else {
+                    totalBytes += fileSizes[i];
+                }
+            }
+        }
+        listener.onProgress(totalRead, totalBytes);
+    }
+
+    // Taille du fichier pour la progression, -1 si le fournisseur ne la donne pas
+    private long queryFileSize(Uri uri) {
+        Cursor cursor = resolver.query(uri, new String[]{OpenableColumns.SIZE}, null, null, null);
+        if (cursor == null) {
+            return -1;
+        }
+        try {
+            return cursor.moveToFirst() && !cursor.isNull(0) ? cursor.getLong(0) : -1;
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.sumapp;
+
+import android.content.ContentProvider;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+import android.os.ParcelFileDescriptor;
+import android.provider.OpenableColumns;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Export CSV sans fichier temporaire : l'application qui reçoit l'URI lit un
+// tube alimenté directement depuis l'instantané de l'historique.
+// Un nom se terminant par ".gz" produit la variante compressée
+public class CsvExportProvider extends ContentProvider {
+
+    private static final String AUTHORITY_SUFFIX = ".export";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final String CSV_HEADER = "Date,Flèches tirées";
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] DEFAULT_PROJECTION = {OpenableColumns.DISPLAY_NAME, OpenableColumns.SIZE};
+
+    public static Uri buildExportUri(Context context, String fileName, boolean gzip) {
+        return new Uri.Builder()
+                .scheme("content")
+                .authority(context.getPackageName() + AUTHORITY_SUFFIX)
+                .appendPath(gzip ? fileName + GZIP_SUFFIX : fileName)
+                .build();
+    }
+
+    public static String getMimeType(boolean gzip) {
+        return gzip ? "application/gzip" : "text/csv";
+    }
+
+    @Override
+    public boolean onCreate() {
+        return true;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        // Nom affiché par l'application destinataire ; taille inconnue (flux)
+        String[] columns = projection != null ? projection : DEFAULT_PROJECTION;
+        Object[] row = new Object[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            if (OpenableColumns.DISPLAY_NAME.equals(columns[i])) {
+                row[i] = uri.getLastPathSegment();
+            }
+        }
+        MatrixCursor cursor = new MatrixCursor(columns, 1);
+        cursor.addRow(row);
+        return cursor;
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return getMimeType(isGzip(uri));
+    }
+
+    @Override
+    public ParcelFileDescriptor openFile(Uri uri, String mode) throws FileNotFoundException {
+        if (!"r".equals(mode)) {
+            throw new FileNotFoundException("Export en lecture seule : " + uri);
+        }
+
+        final ParcelFileDescriptor[] pipe;
+        try {
+            // Tube "fiable" : le lecteur voit une erreur si l'écriture échoue
+            pipe = ParcelFileDescriptor.createReliablePipe();
+        } catch (IOException e) {
+            throw new FileNotFoundException("Impossible de créer le tube : " + e.getMessage());
+        }
+
+        final HistorySnapshot snapshot = HistoryRepository.getInstance(getContext()).getSnapshot();
+        final boolean gzip = isGzip(uri);
+
+        // Thread dédié : l'écriture bloque tant que le destinataire ne lit pas,
+        // elle ne doit donc pas occuper le thread d'E/S de l'application
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeCsv(snapshot, gzip, pipe[1]);
+            }
+        }, "CsvExport").start();
+
+        return pipe[0];
+    }
+
+    private void writeCsv(HistorySnapshot snapshot, boolean gzip, ParcelFileDescriptor writeSide) {
+        try {
+            OutputStream out = new ParcelFileDescriptor.AutoCloseOutputStream(writeSide);
+            if (gzip) {
+                out = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+            }
+            CsvEncoder encoder = new CsvEncoder();
+            encoder.reset(out);
+            encoder.writeHeader(CSV_HEADER);
+            for (int i = 0; i < snapshot.size(); i++) {
+                encoder.writeRow(snapshot.dayAt(i), snapshot.countAt(i));
+            }
+            encoder.flush();
+            out.close();
+        } catch (IOException e) {
+            // Le plus souvent : le destinataire a fermé le flux avant la fin
+            try {
+                writeSide.closeWithError(e.getMessage());
+            } catch (IOException ignored) {
+                // Déjà fermé
+            }
+        }
+    }
+
+    private static boolean isGzip(Uri uri) {
+        String name = uri.getLastPathSegment();
+        return name != null && name.endsWith(GZIP_SUFFIX);
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        throw new UnsupportedOperationException("Export en lecture seule");
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Export en lecture seule");
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Export en lecture seule");
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.sumapp;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+// Horloge de l'écran principal, sur le thread principal : un battement par
+// seconde aligné sur la durée affichée, et un rappel unique au prochain
+// minuit local. Ne tourne qu'entre start() et stop() (écran visible)
+public class DayTicker {
+
+    public interface Listener {
+        void onSecondTick();
+
+        void onNewDay();
+    }
+
+    private static final long SECOND_MS = 1000;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Listener listener;
+    private boolean running;
+    // elapsedRealtime() du début de la durée affichée : les battements tombent sur ses secondes
+    private long origin;
+
+    private final Runnable secondTick = new Runnable() {
+        @Override
+        public void run() {
+            listener.onSecondTick();
+            scheduleSecondTick();
+        }
+    };
+
+    private final Runnable midnight = new Runnable() {
+        @Override
+        public void run() {
+            listener.onNewDay();
+            // Replanifié depuis l'heure réelle : sans dérive, même après un changement d'heure
+            scheduleMidnight();
+        }
+    };
+
+    public DayTicker(Listener listener) {
+        this.listener = listener;
+    }
+
+    public void start(long origin) {
+        this.origin = origin;
+        if (running) {
+            return;
+        }
+        running = true;
+        scheduleSecondTick();
+        scheduleMidnight();
+    }
+
+    public void stop() {
+        running = false;
+        handler.removeCallbacks(secondTick);
+        handler.removeCallbacks(midnight);
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    // Nouvelle origine de la durée (remise à zéro du compteur)
+    public void setOrigin(long origin) {
+        this.origin = origin;
+        if (running) {
+            handler.removeCallbacks(secondTick);
+            scheduleSecondTick();
+        }
+    }
+
+    private void scheduleSecondTick() {
+        long elapsed = SystemClock.elapsedRealtime() - origin;
+        long untilNextSecond = SECOND_MS - ((elapsed % SECOND_MS) + SECOND_MS) % SECOND_MS;
+        handler.postDelayed(secondTick, untilNextSecond);
+    }
+
+    private void scheduleMidnight() {
+        handler.removeCallbacks(midnight);
+        // Quelques millisecondes de marge : le rappel ne doit pas tomber avant minuit
+        handler.postDelayed(midnight, DateCodec.millisUntilNextDay() + 5);
+    }
+}
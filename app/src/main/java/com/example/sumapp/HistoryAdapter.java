@@ -0,0 +1,151 @@
+package com.example.sumapp;
+
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.TextView;
+
+import androidx.recyclerview.widget.AdapterListUpdateCallback;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.ListUpdateCallback;
+import androidx.recyclerview.widget.RecyclerView;
+
+// Liste de l'historique (plus récent en haut) lue directement dans l'instantané :
+// aucune ligne n'est préparée à l'avance, seules les lignes visibles sont liées
+public class HistoryAdapter extends RecyclerView.Adapter<HistoryAdapter.ViewHolder> {
+
+    private HistorySnapshot snapshot;
+    private int today;
+    private final ListUpdateCallback updateCallback = new AdapterListUpdateCallback(this);
+
+    public HistoryAdapter(HistorySnapshot snapshot, int today) {
+        this.snapshot = snapshot;
+        this.today = today;
+    }
+
+    static class ViewHolder extends RecyclerView.ViewHolder {
+        final TextView textView;
+
+        ViewHolder(View itemView) {
+            super(itemView);
+            textView = itemView.findViewById(R.id.textViewHistoryEntry);
+        }
+    }
+
+    @Override
+    public ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(parent.getContext()).inflate(R.layout.item_history, parent, false);
+        return new ViewHolder(view);
+    }
+
+    @Override
+    public void onBindViewHolder(ViewHolder holder, int position) {
+        int index = snapshot.size() - 1 - position;
+        int day = snapshot.dayAt(index);
+        int count = snapshot.countAt(index);
+        String dayLabel = day == today ? " (aujourd'hui)" : "";
+        String arrowText = count == 1 ? " flèche" : " flèches";
+        holder.textView.setText(DateCodec.formatDisplay(day) + dayLabel + " : " + count + arrowText);
+    }
+
+    @Override
+    public int getItemCount() {
+        return snapshot.size();
+    }
+
+    public void setToday(int day) {
+        if (day == today) {
+            return;
+        }
+        // Le libellé "(aujourd'hui)" passe d'une ligne à l'autre
+        int previous = today;
+        today = day;
+        notifyDayChanged(previous);
+        notifyDayChanged(day);
+    }
+
+    // Applique un nouvel instantané dont seuls les jours fromDay..toDay ont changé
+    public void submitSnapshot(HistorySnapshot newSnapshot, int fromDay, int toDay) {
+        HistorySnapshot oldSnapshot = snapshot;
+        if (newSnapshot.getVersion() != oldSnapshot.getVersion() + 1) {
+            // Des modifications intermédiaires ont pu être regroupées : tout comparer
+            fromDay = Integer.MIN_VALUE;
+            toDay = Integer.MAX_VALUE;
+        }
+        snapshot = newSnapshot;
+
+        if (fromDay == toDay) {
+            // Cas courant (ajout de flèches) : une seule ligne modifiée ou insérée
+            int oldIndex = oldSnapshot.indexOf(fromDay);
+            int newIndex = newSnapshot.indexOf(fromDay);
+            if (oldIndex >= 0 && newIndex >= 0) {
+                notifyItemChanged(newSnapshot.size() - 1 - newIndex);
+                return;
+            }
+            if (oldIndex < 0 && newIndex >= 0) {
+                notifyItemInserted(newSnapshot.size() - 1 - newIndex);
+                return;
+            }
+        }
+
+        // Comparer uniquement la fenêtre modifiée ; les lignes plus récentes (en haut)
+        // sont identiques dans les deux instantanés et décalent les positions
+        final int oldStart = oldSnapshot.lowerBound(fromDay);
+        final int oldEnd = toDay == Integer.MAX_VALUE ? oldSnapshot.size() : oldSnapshot.lowerBound(toDay + 1);
+        final int newStart = newSnapshot.lowerBound(fromDay);
+        final int newEnd = toDay == Integer.MAX_VALUE ? newSnapshot.size() : newSnapshot.lowerBound(toDay + 1);
+        final HistorySnapshot before = oldSnapshot;
+        final int offset = oldSnapshot.size() - oldEnd;
+
+        DiffUtil.DiffResult result = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldEnd - oldStart;
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newEnd - newStart;
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return before.dayAt(oldEnd - 1 - oldPosition) == newSnapshot.dayAt(newEnd - 1 - newPosition);
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                return before.countAt(oldEnd - 1 - oldPosition) == newSnapshot.countAt(newEnd - 1 - newPosition);
+            }
+        }, false);
+
+        result.dispatchUpdatesTo(new ListUpdateCallback() {
+            @Override
+            public void onInserted(int position, int count) {
+                updateCallback.onInserted(position + offset, count);
+            }
+
+            @Override
+            public void onRemoved(int position, int count) {
+                updateCallback.onRemoved(position + offset, count);
+            }
+
+            @Override
+            public void onMoved(int fromPosition, int toPosition) {
+                updateCallback.onMoved(fromPosition + offset, toPosition + offset);
+            }
+
+            @Override
+            public void onChanged(int position, int count, Object payload) {
+                updateCallback.onChanged(position + offset, count, payload);
+            }
+        });
+    }
+
+    private void notifyDayChanged(int day) {
+        int index = snapshot.indexOf(day);
+        if (index >= 0) {
+            notifyItemChanged(snapshot.size() - 1 - index);
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.sumapp;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Historique partagé par toute l'application : chargé une seule fois, il publie
+// des instantanés immuables (copie à l'écriture) et prévient les écouteurs
+// à chaque modification
+public class HistoryRepository {
+
+    // Jours modifiés de fromDay à toDay inclus (un seul jour si fromDay == toDay)
+    public interface OnHistoryChangedListener {
+        void onHistoryChanged(int fromDay, int toDay);
+    }
+
+    // Appelé sur le thread de l'écriture, juste avant la publication de la nouvelle
+    // version : pour les caches qui doivent être à jour avant toute lecture. Doit être rapide
+    public interface OnHistoryVersionListener {
+        void onHistoryVersion(int fromDay, int toDay, long newVersion);
+    }
+
+    // Un historique par archer, chargé à sa première utilisation
+    private static final Map<Integer, HistoryRepository> instances = new HashMap<>();
+
+    private final HistoryStore historyStore;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CopyOnWriteArrayList<OnHistoryChangedListener> listeners = new CopyOnWriteArrayList<>();
+    private final CopyOnWriteArrayList<OnHistoryVersionListener> versionListeners = new CopyOnWriteArrayList<>();
+
+    private final Object writeLock = new Object();
+    private final Object flushLock = new Object();
+    private volatile HistorySnapshot snapshot;
+    private DayHistory dirtyDays = new DayHistory();
+
+    private static final HistoryMerge.ChangeVisitor NO_CHANGE_VISITOR = new HistoryMerge.ChangeVisitor() {
+        @Override
+        public void onChange(int day, boolean existed, int oldCount, int newCount) {
+        }
+    };
+
+    // Historique de l'archer actif
+    public static HistoryRepository getInstance(Context context) {
+        return getInstance(context, ArcherProfiles.getActiveArcherId(context));
+    }
+
+    public static synchronized HistoryRepository getInstance(Context context, int archerId) {
+        HistoryRepository instance = instances.get(archerId);
+        if (instance == null) {
+            instance = new HistoryRepository(HistoryStore.getInstance(context, archerId));
+            instances.put(archerId, instance);
+        }
+        return instance;
+    }
+
+    private HistoryRepository(HistoryStore historyStore) {
+        this.historyStore = historyStore;
+        snapshot = HistorySnapshot.of(historyStore.loadAll());
+    }
+
+    // Lecture sans verrou : l'instantané ne change jamais une fois publié
+    public HistorySnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void addListener(OnHistoryChangedListener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(OnHistoryChangedListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void addVersionListener(OnHistoryVersionListener listener) {
+        versionListeners.addIfAbsent(listener);
+    }
+
+    // Renvoie true si le jour a été ajouté, modifié ou retiré (count = 0)
+    public boolean setDay(int day, int count) {
+        synchronized (writeLock) {
+            HistorySnapshot current = snapshot;
+            HistorySnapshot next = current.withDay(day, count);
+            if (next == current) {
+                return false;
+            }
+            // 0 : jour à supprimer de la base
+            dirtyDays.put(day, count);
+            publish(next, day, day);
+        }
+        notifyHistoryChanged(day, day);
+        return true;
+    }
+
+    // Fusionne des jours importés (voir HistoryMerge) en un seul parcours linéaire
+    // et un seul nouvel instantané ; renvoie le nombre de jours ajoutés ou modifiés
+    public int mergeDays(DayHistory incoming, int strategy) {
+        DayHistory changes = new DayHistory();
+        synchronized (writeLock) {
+            HistorySnapshot current = snapshot;
+            HistorySnapshot next = current.withMerged(incoming, strategy, changes);
+            if (next == current) {
+                return 0;
+            }
+            // Jours à écrire : fusion linéaire avec ceux déjà en attente
+            DayHistory dirty = new DayHistory(dirtyDays.size() + changes.size());
+            HistoryMerge.merge(dirtyDays, changes, HistoryMerge.REPLACE, true, dirty, NO_CHANGE_VISITOR);
+            dirtyDays = dirty;
+            publish(next, changes.firstDay(), changes.lastDay());
+        }
+        notifyHistoryChanged(changes.firstDay(), changes.lastDay());
+        return changes.size();
+    }
+
+    public boolean hasPendingDays() {
+        synchronized (writeLock) {
+            return !dirtyDays.isEmpty();
+        }
+    }
+
+    // Écrit dans la base les seuls jours modifiés depuis le dernier flush
+    public void flush() {
+        synchronized (flushLock) {
+            DayHistory toWrite;
+            synchronized (writeLock) {
+                if (dirtyDays.isEmpty()) {
+                    return;
+                }
+                toWrite = dirtyDays;
+                dirtyDays = new DayHistory();
+            }
+            try {
+                historyStore.putDays(toWrite);
+            } catch (RuntimeException e) {
+                // Base pleine ou verrouillée : remettre les jours en attente pour le
+                // prochain flush, sans écraser ceux modifiés depuis
+                synchronized (writeLock) {
+                    DayHistory retry = new DayHistory(toWrite.size() + dirtyDays.size());
+                    HistoryMerge.merge(toWrite, dirtyDays, HistoryMerge.REPLACE, true, retry, NO_CHANGE_VISITOR);
+                    dirtyDays = retry;
+                }
+                throw e;
+            }
+        }
+    }
+
+    // Sous writeLock : les versions sont annoncées dans l'ordre
+    private void publish(HistorySnapshot next, int fromDay, int toDay) {
+        for (OnHistoryVersionListener listener : versionListeners) {
+            listener.onHistoryVersion(fromDay, toDay, next.getVersion());
+        }
+        snapshot = next;
+    }
+
+    private void notifyHistoryChanged(final int fromDay, final int toDay) {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        // Les écouteurs sont toujours appelés sur le thread principal
+        if (Looper.myLooper() == Looper.getMainLooper()) {
+            for (OnHistoryChangedListener listener : listeners) {
+                listener.onHistoryChanged(fromDay, toDay);
+            }
+        } else {
+            mainHandler.post(new Runnable() {
+                @Override
+                public void run() {
+                    for (OnHistoryChangedListener listener : listeners) {
+                        listener.onHistoryChanged(fromDay, toDay);
+                    }
+                }
+            });
+        }
+    }
+}
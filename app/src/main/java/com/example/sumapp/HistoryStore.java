@@ -0,0 +1,190 @@
+package com.example.sumapp;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+// Stockage de l'historique des flèches dans une table SQLite indexée par date,
+// à la place des clés "arrowHistory_yyyy-MM-dd" de SharedPreferences
+public class HistoryStore extends SQLiteOpenHelper {
+
+    // 2 : plus de lignes à 0 flèche (historique creux)
+    private static final int DATABASE_VERSION = 2;
+
+    private static final String TABLE_HISTORY = "arrow_history";
+    private static final String COLUMN_DATE = "date";
+    private static final String COLUMN_ARROWS = "arrows";
+
+    // Anciennes clés SharedPreferences à migrer (archer principal uniquement)
+    private static final String PREFS_NAME = "SumAppPrefs";
+    private static final String KEY_ARROW_HISTORY_PREFIX = "arrowHistory_";
+    private static final String KEY_HISTORY_MIGRATED = "historyMigrated";
+
+    // Une base par archer (voir ArcherProfiles)
+    private static final Map<Integer, HistoryStore> instances = new HashMap<>();
+
+    private final Context appContext;
+    private final CountDownLatch migrationDone = new CountDownLatch(1);
+
+    public static synchronized HistoryStore getInstance(Context context, int archerId) {
+        HistoryStore instance = instances.get(archerId);
+        if (instance == null) {
+            instance = new HistoryStore(context.getApplicationContext(), archerId);
+            if (archerId == ArcherProfiles.DEFAULT_ARCHER) {
+                instance.startLegacyMigration();
+            } else {
+                instance.migrationDone.countDown();
+            }
+            instances.put(archerId, instance);
+        }
+        return instance;
+    }
+
+    private HistoryStore(Context context, int archerId) {
+        super(context, ArcherProfiles.historyDatabaseName(archerId), null, DATABASE_VERSION);
+        this.appContext = context;
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        // La clé primaire sur la date sert d'index pour les requêtes par plage
+        db.execSQL("CREATE TABLE " + TABLE_HISTORY + " ("
+                + COLUMN_DATE + " TEXT PRIMARY KEY NOT NULL, "
+                + COLUMN_ARROWS + " INTEGER NOT NULL)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        if (oldVersion < 2) {
+            // Les jours sans flèches ne sont plus stockés
+            db.delete(TABLE_HISTORY, COLUMN_ARROWS + " = 0", null);
+        }
+    }
+
+    private void startLegacyMigration() {
+        final SharedPreferences prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        if (prefs.getBoolean(KEY_HISTORY_MIGRATED, false)) {
+            migrationDone.countDown();
+            return;
+        }
+
+        // Migration unique en arrière-plan des anciennes clés vers la base
+        new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    migrateLegacyPrefs(prefs);
+                } finally {
+                    migrationDone.countDown();
+                }
+            }
+        }, "HistoryMigration").start();
+    }
+
+    private void migrateLegacyPrefs(SharedPreferences prefs) {
+        Map<String, ?> allPrefs = prefs.getAll();
+        SharedPreferences.Editor editor = prefs.edit();
+        SQLiteDatabase db = getWritableDatabase();
+
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues(2);
+            for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
+                if (entry.getKey().startsWith(KEY_ARROW_HISTORY_PREFIX) && entry.getValue() instanceof Integer
+                        && (Integer) entry.getValue() != 0) {
+                    values.put(COLUMN_DATE, entry.getKey().substring(KEY_ARROW_HISTORY_PREFIX.length()));
+                    values.put(COLUMN_ARROWS, (Integer) entry.getValue());
+                    db.insertWithOnConflict(TABLE_HISTORY, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+                }
+                if (entry.getKey().startsWith(KEY_ARROW_HISTORY_PREFIX)) {
+                    editor.remove(entry.getKey());
+                }
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        // Ne supprimer les anciennes clés qu'une fois la base à jour
+        editor.putBoolean(KEY_HISTORY_MIGRATED, true);
+        editor.commit();
+    }
+
+    private void awaitMigration() {
+        boolean interrupted = false;
+        while (true) {
+            try {
+                migrationDone.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public DayHistory loadAll() {
+        awaitMigration();
+        return query(null, null);
+    }
+
+    // Jours compris entre startDay et endDay inclus
+    public DayHistory loadRange(int startDay, int endDay) {
+        awaitMigration();
+        return query(COLUMN_DATE + " >= ? AND " + COLUMN_DATE + " <= ?",
+                new String[]{DateCodec.formatIso(startDay), DateCodec.formatIso(endDay)});
+    }
+
+    // Un jour à 0 est supprimé : seuls les jours avec des flèches sont stockés
+    public void putDays(DayHistory days) {
+        awaitMigration();
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            ContentValues values = new ContentValues(2);
+            String[] dateArg = new String[1];
+            for (int i = 0; i < days.size(); i++) {
+                String date = DateCodec.formatIso(days.dayAt(i));
+                if (days.countAt(i) == 0) {
+                    dateArg[0] = date;
+                    db.delete(TABLE_HISTORY, COLUMN_DATE + " = ?", dateArg);
+                    continue;
+                }
+                values.put(COLUMN_DATE, date);
+                values.put(COLUMN_ARROWS, days.countAt(i));
+                db.insertWithOnConflict(TABLE_HISTORY, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private DayHistory query(String selection, String[] selectionArgs) {
+        Cursor cursor = getReadableDatabase().query(TABLE_HISTORY,
+                new String[]{COLUMN_DATE, COLUMN_ARROWS},
+                selection, selectionArgs, null, null, COLUMN_DATE);
+        try {
+            // Lignes triées par date : remplissage par ajout en fin
+            DayHistory result = new DayHistory(cursor.getCount());
+            while (cursor.moveToNext()) {
+                int day = DateCodec.parseIso(cursor.getString(0));
+                if (day != DateCodec.INVALID_DAY) {
+                    result.append(day, cursor.getInt(1));
+                }
+            }
+            return result;
+        } finally {
+            cursor.close();
+        }
+    }
+}
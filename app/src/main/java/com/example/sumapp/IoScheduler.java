@@ -0,0 +1,169 @@
+package com.example.sumapp;
+
+import android.os.SystemClock;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Unique thread d'entrées/sorties de l'application : toutes les lectures et
+// écritures disque y passent, dans l'ordre, hors du thread principal.
+// Les rafales de modifications sont regroupées en une seule écriture différée
+public class IoScheduler {
+
+    // Délai d'attente après la dernière modification avant d'écrire
+    private static final long FLUSH_DELAY_MS = 300;
+    // Délai maximal depuis la première modification non écrite
+    private static final long MAX_FLUSH_DELAY_MS = 2000;
+
+    private static IoScheduler instance;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Map<Runnable, ScheduledFlush> scheduledFlushes = new HashMap<>();
+    private final AtomicInteger pendingWrites = new AtomicInteger();
+
+    // Écriture différée en attente pour une tâche de flush donnée
+    private static class ScheduledFlush {
+        ScheduledFuture<?> future;
+        long firstRequestTime;
+        int requests;
+    }
+
+    public static synchronized IoScheduler getInstance() {
+        if (instance == null) {
+            instance = new IoScheduler();
+        }
+        return instance;
+    }
+
+    private IoScheduler() {
+        executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                return new Thread(runnable, "SumAppIo");
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    // Lecture ou traitement en arrière-plan (non compté comme écriture)
+    public void execute(final Runnable task) {
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                runSafely(task);
+            }
+        });
+    }
+
+    // Écriture ponctuelle en arrière-plan (export, etc.)
+    public void submitWrite(final Runnable task) {
+        pendingWrites.incrementAndGet();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    runSafely(task);
+                } finally {
+                    pendingWrites.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    // Demande d'écriture regroupée : chaque appel repousse le flush de FLUSH_DELAY_MS,
+    // sans dépasser MAX_FLUSH_DELAY_MS depuis la première demande
+    public void requestFlush(final Runnable flushTask) {
+        pendingWrites.incrementAndGet();
+        synchronized (scheduledFlushes) {
+            long now = SystemClock.uptimeMillis();
+            ScheduledFlush scheduled = scheduledFlushes.get(flushTask);
+            if (scheduled == null) {
+                scheduled = new ScheduledFlush();
+                scheduled.firstRequestTime = now;
+                scheduledFlushes.put(flushTask, scheduled);
+            } else {
+                scheduled.future.cancel(false);
+            }
+            scheduled.requests++;
+            long deadline = scheduled.firstRequestTime + MAX_FLUSH_DELAY_MS;
+            long delay = Math.max(0, Math.min(FLUSH_DELAY_MS, deadline - now));
+            scheduled.future = executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    runFlush(flushTask, takeScheduledRequests(flushTask));
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Flush immédiat et bloquant (onPause) : annule l'écriture différée et attend
+    // que le thread d'E/S ait tout écrit, y compris les tâches déjà en file
+    public void flushNow(final Runnable flushTask) {
+        final int requests;
+        synchronized (scheduledFlushes) {
+            ScheduledFlush scheduled = scheduledFlushes.get(flushTask);
+            if (scheduled != null) {
+                scheduled.future.cancel(false);
+            }
+            requests = takeScheduledRequests(flushTask);
+        }
+        Future<?> done = executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                runFlush(flushTask, requests);
+            }
+        });
+
+        boolean interrupted = false;
+        while (true) {
+            try {
+                done.get();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            } catch (ExecutionException e) {
+                e.printStackTrace();
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Nombre de demandes d'écriture pas encore arrivées sur le disque (diagnostic)
+    public int getPendingWrites() {
+        return pendingWrites.get();
+    }
+
+    private int takeScheduledRequests(Runnable flushTask) {
+        synchronized (scheduledFlushes) {
+            ScheduledFlush scheduled = scheduledFlushes.remove(flushTask);
+            return scheduled != null ? scheduled.requests : 0;
+        }
+    }
+
+    private void runFlush(Runnable flushTask, int requests) {
+        try {
+            runSafely(flushTask);
+        } finally {
+            pendingWrites.addAndGet(-requests);
+        }
+    }
+
+    private void runSafely(Runnable task) {
+        // Une tâche en échec ne doit pas arrêter le thread d'E/S
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -1,11 +1,11 @@
 package com.example.sumapp;
 
+import android.content.ClipData;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.net.Uri;
 import android.os.Bundle;
-import android.os.Environment;
 import android.os.SystemClock;
 import android.text.TextUtils;
 import android.view.View;
@@ -13,30 +13,22 @@ import android.widget.Button;
 import android.widget.EditText;
 import android.widget.TextView;
 import android.widget.Toast;
-import android.widget.ScrollView;
 import android.widget.LinearLayout;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.appcompat.widget.SwitchCompat;
-import androidx.core.content.FileProvider;
 import androidx.activity.result.ActivityResultLauncher;
 import androidx.activity.result.contract.ActivityResultContracts;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.text.ParseException;
 import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.HashMap;
-import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 public class MainActivity extends AppCompatActivity {
@@ -57,8 +49,10 @@ public class MainActivity extends AppCompatActivity {
     private Button buttonExportCsv;
     private Button buttonImportCsv;
     private Button buttonObjectives;
-    private LinearLayout historyContainer;
-    private ScrollView historyScrollView;
+    private Button buttonArcher;
+    private RecyclerView historyRecyclerView;
+    private LinearLayoutManager historyLayoutManager;
+    private HistoryAdapter historyAdapter;
     private LinearLayout layoutCountingMode;
     private LinearLayout layoutScoringMode;
     private LinearLayout layoutScoreInfo;
@@ -69,30 +63,60 @@ public class MainActivity extends AppCompatActivity {
     private int lastSum = 0;
     private long lastResetTime = 0;
     private String currentDate;
-    private Map<String, Integer> arrowHistory = new TreeMap<>();
-    private int lastAddedValue = 0; // Valeur du dernier ajout
     private boolean isScoringMode = false;
     private float totalScoreSum = 0.0f;
     private int totalScoreCount = 0;
+    // Dernier compte du jour publié dans l'historique (null : rien de publié)
+    private String publishedDate;
+    private int publishedSum;
+    // Archer dont les données sont affichées (mode club)
+    private int archerId;
+    private HistoryRepository historyRepository;
+    private ScoreLog scoreLog;
+    // Ajouts, annulations et imports horodatés : compteurs du jour et pile d'annulation
+    private AddJournal addJournal;
+    // Saisie des scores analysée au fil des modifications (aperçu et ajout)
+    private final ScoreInputParser scoreInput = new ScoreInputParser();
+    private PendingChanges pendingChanges;
+    private IoScheduler ioScheduler;
+    private Runnable flushTask;
+    private HistoryRepository.OnHistoryChangedListener historyListener;
+
+    // Durée affichée chaque seconde et changement de jour à minuit, écran visible seulement
+    private boolean visible;
+    private final DayTicker dayTicker = new DayTicker(new DayTicker.Listener() {
+        @Override
+        public void onSecondTick() {
+            updateDurationText();
+        }
+
+        @Override
+        public void onNewDay() {
+            checkDailyReset();
+            updateUI();
+            saveData();
+        }
+    });
 
-    // Clés pour SharedPreferences
-    private static final String PREFS_NAME = "SumAppPrefs";
+    // Clés pour SharedPreferences (fichier de l'archer actif, voir ArcherProfiles)
     private static final String KEY_CURRENT_SUM = "currentSum";
     private static final String KEY_LAST_SUM = "lastSum";
     private static final String KEY_LAST_RESET_TIME = "lastResetTime";
     private static final String KEY_CURRENT_DATE = "currentDate";
-    private static final String KEY_ARROW_HISTORY_PREFIX = "arrowHistory_";
-    private static final String KEY_LAST_ADDED_VALUE = "lastAddedValue";
     private static final String KEY_SCORING_MODE = "scoringMode";
     private static final String KEY_TOTAL_SCORE_SUM = "totalScoreSum";
     private static final String KEY_TOTAL_SCORE_COUNT = "totalScoreCount";
     
     // Clés pour les objectifs
     private static final String KEY_OBJECTIVE_ACTIVE = "objectiveActive";
+    private static final String KEY_OBJECTIVE_TYPE = "objectiveType";
     private static final String KEY_OBJECTIVE_TARGET = "objectiveTarget";
     private static final String KEY_OBJECTIVE_START_DATE = "objectiveStartDate";
     private static final String KEY_OBJECTIVE_END_DATE = "objectiveEndDate";
 
+    // Au-delà de ce nombre de jours, l'export propose la compression gzip
+    private static final int GZIP_SUGGESTION_DAYS = 5000;
+
     // Lanceur pour sélectionner un fichier CSV
     private ActivityResultLauncher<Intent> csvFileLauncher;
 
@@ -101,6 +125,8 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        ioScheduler = IoScheduler.getInstance();
+
         // Initialisation des vues
         editTextNumber = findViewById(R.id.editTextNumber);
         editTextScores = findViewById(R.id.editTextScores);
@@ -118,37 +144,42 @@ public class MainActivity extends AppCompatActivity {
         buttonExportCsv = findViewById(R.id.buttonExportCsv);
         buttonImportCsv = findViewById(R.id.buttonImportCsv);
         buttonObjectives = findViewById(R.id.buttonObjectives);
-        historyContainer = findViewById(R.id.historyContainer);
-        historyScrollView = findViewById(R.id.historyScrollView);
+        buttonArcher = findViewById(R.id.buttonArcher);
+        historyRecyclerView = findViewById(R.id.historyRecyclerView);
         layoutCountingMode = findViewById(R.id.layoutCountingMode);
         layoutScoringMode = findViewById(R.id.layoutScoringMode);
         layoutScoreInfo = findViewById(R.id.layoutScoreInfo);
         layoutObjective = findViewById(R.id.layoutObjective);
         switchMode = findViewById(R.id.switchMode);
 
+        historyLayoutManager = new LinearLayoutManager(this);
+        historyRecyclerView.setLayoutManager(historyLayoutManager);
+
         // Initialiser le lanceur pour sélectionner un fichier CSV
         csvFileLauncher = registerForActivityResult(
                 new ActivityResultContracts.StartActivityForResult(),
                 result -> {
                     if (result.getResultCode() == RESULT_OK && result.getData() != null) {
-                        Uri csvUri = result.getData().getData();
-                        if (csvUri != null) {
-                            processCsvFile(csvUri);
+                        // Plusieurs fichiers dans le ClipData, un seul dans getData()
+                        List<Uri> csvUris = new ArrayList<>();
+                        ClipData clipData = result.getData().getClipData();
+                        if (clipData != null) {
+                            for (int i = 0; i < clipData.getItemCount(); i++) {
+                                csvUris.add(clipData.getItemAt(i).getUri());
+                            }
+                        } else if (result.getData().getData() != null) {
+                            csvUris.add(result.getData().getData());
+                        }
+                        if (!csvUris.isEmpty()) {
+                            processCsvFiles(csvUris);
                         }
                     }
                 });
 
-        // Charger les données sauvegardées
-        loadSavedData();
-
-        // Vérifier si nous sommes sur un nouveau jour
-        checkDailyReset();
-
-        // S'assurer que le jour actuel est dans l'historique (même à 0)
-        arrowHistory.put(currentDate, currentSum);
-
-        // Mettre à jour l'interface utilisateur
-        updateUI();
+        // Charger les données sauvegardées sur le thread d'E/S ; les commandes
+        // restent désactivées jusqu'à la fin du chargement
+        setControlsEnabled(false);
+        loadDataInBackground();
 
         // Configurer les écouteurs d'événements
         buttonAdd.setOnClickListener(new View.OnClickListener() {
@@ -193,6 +224,13 @@ public class MainActivity extends AppCompatActivity {
             }
         });
 
+        buttonArcher.setOnClickListener(new View.OnClickListener() {
+            @Override
+            public void onClick(View v) {
+                showArcherDialog();
+            }
+        });
+
         // Écouteur pour le switch mode
         switchMode.setOnCheckedChangeListener(new android.widget.CompoundButton.OnCheckedChangeListener() {
             @Override
@@ -210,6 +248,8 @@ public class MainActivity extends AppCompatActivity {
 
             @Override
             public void onTextChanged(CharSequence s, int start, int before, int count) {
+                // Seuls les champs touchés par la modification sont relus
+                scoreInput.onTextChanged(s, start, before, count);
                 updateScorePreview();
             }
 
@@ -217,76 +257,182 @@ public class MainActivity extends AppCompatActivity {
             public void afterTextChanged(android.text.Editable s) {}
         });
 
+    }
+
+    private void loadDataInBackground() {
+        ioScheduler.execute(new Runnable() {
+            @Override
+            public void run() {
+                // Seule la partition de l'archer actif est chargée
+                final int archer = ArcherProfiles.getActiveArcherId(MainActivity.this);
+                // Historique partagé par toutes les activités (chargé une seule fois par processus)
+                final HistoryRepository repository = HistoryRepository.getInstance(MainActivity.this, archer);
+                // Le constructeur lit toutes les préférences : elles sont ensuite en mémoire
+                final SharedPreferences prefs = getSharedPreferences(ArcherProfiles.prefsName(archer), Context.MODE_PRIVATE);
+                final PendingChanges changes = new PendingChanges(prefs, repository);
+                // Journal des scores flèche par flèche, lu en entier une seule fois
+                final ScoreLog log = ScoreLog.getInstance(MainActivity.this, archer);
+                final AddJournal journal = AddJournal.getInstance(MainActivity.this, archer);
+                deleteLegacyExports();
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!isDestroyed()) {
+                            onDataLoaded(archer, repository, log, journal, changes, prefs);
+                        }
+                    }
+                });
+            }
+        });
+    }
+
+    private void onDataLoaded(int archer, HistoryRepository repository, ScoreLog log, AddJournal journal,
+                              PendingChanges changes, SharedPreferences prefs) {
+        archerId = archer;
+        buttonArcher.setText("Archer : " + ArcherProfiles.getName(this, archer));
+        historyRepository = repository;
+        scoreLog = log;
+        addJournal = journal;
+        pendingChanges = changes;
+        flushTask = new Runnable() {
+            @Override
+            public void run() {
+                pendingChanges.flush();
+                // Résumé pour les classements du club (ne lit que les totaux pré-agrégés)
+                ClubLeaderboard.publish(MainActivity.this, archerId, historyRepository.getSnapshot(), scoreLog);
+            }
+        };
+
+        // Liste recyclée : seules les lignes visibles sont créées et liées
+        historyAdapter = new HistoryAdapter(historyRepository.getSnapshot(), DateCodec.today());
+        historyRecyclerView.setAdapter(historyAdapter);
+        historyListener = new HistoryRepository.OnHistoryChangedListener() {
+            @Override
+            public void onHistoryChanged(int fromDay, int toDay) {
+                // Rester sur les entrées les plus récentes si la liste était en haut
+                boolean atTop = historyLayoutManager.findFirstCompletelyVisibleItemPosition() <= 0;
+                historyAdapter.submitSnapshot(historyRepository.getSnapshot(), fromDay, toDay);
+                if (atTop) {
+                    historyRecyclerView.scrollToPosition(0);
+                }
+            }
+        };
+        historyRepository.addListener(historyListener);
+
+        // Charger les données sauvegardées
+        loadSavedData(prefs);
+
+        // Le journal fait foi pour les compteurs du jour (préférences écrites en différé)
+        replayJournal();
+
+        // Vérifier si nous sommes sur un nouveau jour
+        checkDailyReset();
+
+        setControlsEnabled(true);
+
+        // Mettre à jour l'interface utilisateur
+        updateUI();
+
         // Mettre à jour l'interface selon le mode
         updateModeUI();
 
-        // Démarrer la mise à jour périodique de la durée
-        startDurationUpdates();
+        // Démarrer la mise à jour de la durée si l'écran est déjà visible
+        if (visible) {
+            dayTicker.start(lastResetTime);
+        }
+    }
+
+    private boolean isDataLoaded() {
+        return pendingChanges != null;
+    }
+
+    private void setControlsEnabled(boolean enabled) {
+        buttonAdd.setEnabled(enabled);
+        buttonUndo.setEnabled(enabled);
+        buttonViewStats.setEnabled(enabled);
+        buttonExportCsv.setEnabled(enabled);
+        buttonImportCsv.setEnabled(enabled);
+        buttonObjectives.setEnabled(enabled);
+        buttonArcher.setEnabled(enabled);
+        switchMode.setEnabled(enabled);
     }
 
-    private void loadSavedData() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    private void loadSavedData(SharedPreferences prefs) {
         currentSum = prefs.getInt(KEY_CURRENT_SUM, 0);
         lastSum = prefs.getInt(KEY_LAST_SUM, 0);
         lastResetTime = prefs.getLong(KEY_LAST_RESET_TIME, SystemClock.elapsedRealtime());
         currentDate = prefs.getString(KEY_CURRENT_DATE, getCurrentDateString());
-        lastAddedValue = prefs.getInt(KEY_LAST_ADDED_VALUE, 0);
         isScoringMode = prefs.getBoolean(KEY_SCORING_MODE, false);
         totalScoreSum = prefs.getFloat(KEY_TOTAL_SCORE_SUM, 0.0f);
         totalScoreCount = prefs.getInt(KEY_TOTAL_SCORE_COUNT, 0);
         
         // Mettre à jour le switch
         switchMode.setChecked(isScoringMode);
-        
-        // Charger l'historique
-        Map<String, ?> allPrefs = prefs.getAll();
-        for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
-            if (entry.getKey().startsWith(KEY_ARROW_HISTORY_PREFIX)) {
-                String date = entry.getKey().substring(KEY_ARROW_HISTORY_PREFIX.length());
-                Integer count = (Integer) entry.getValue();
-                arrowHistory.put(date, count);
-            }
-        }
     }
 
     private void saveData() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = prefs.edit();
-        editor.putInt(KEY_CURRENT_SUM, currentSum);
-        editor.putInt(KEY_LAST_SUM, lastSum);
-        editor.putLong(KEY_LAST_RESET_TIME, lastResetTime);
-        editor.putString(KEY_CURRENT_DATE, currentDate);
-        editor.putInt(KEY_LAST_ADDED_VALUE, lastAddedValue);
-        editor.putBoolean(KEY_SCORING_MODE, isScoringMode);
-        editor.putFloat(KEY_TOTAL_SCORE_SUM, totalScoreSum);
-        editor.putInt(KEY_TOTAL_SCORE_COUNT, totalScoreCount);
+        // Le jour en cours est tenu à jour dans l'historique pour les requêtes par plage
+        putHistoryDay(DateCodec.parseIso(currentDate), currentSum);
+
+        // Seuls les champs modifiés depuis la dernière sauvegarde sont réécrits
+        pendingChanges.putInt(KEY_CURRENT_SUM, currentSum);
+        pendingChanges.putInt(KEY_LAST_SUM, lastSum);
+        pendingChanges.putLong(KEY_LAST_RESET_TIME, lastResetTime);
+        pendingChanges.putString(KEY_CURRENT_DATE, currentDate);
+        pendingChanges.putBoolean(KEY_SCORING_MODE, isScoringMode);
+        pendingChanges.putFloat(KEY_TOTAL_SCORE_SUM, totalScoreSum);
+        pendingChanges.putInt(KEY_TOTAL_SCORE_COUNT, totalScoreCount);
         
-        // Enregistrer l'historique
-        for (Map.Entry<String, Integer> entry : arrowHistory.entrySet()) {
-            editor.putInt(KEY_ARROW_HISTORY_PREFIX + entry.getKey(), entry.getValue());
+        // L'historique n'écrit que les jours modifiés via putHistoryDay() ;
+        // les sauvegardes rapprochées sont regroupées en une seule écriture
+        ioScheduler.requestFlush(flushTask);
+    }
+
+    private void replayJournal() {
+        int day = DateCodec.parseIso(currentDate);
+        int journalDay = addJournal.getDay();
+        if (journalDay != AddJournal.NO_DAY && journalDay > day) {
+            // Ajouts d'un jour suivant dont le changement de jour n'a pas été enregistré
+            putHistoryDay(day, currentSum);
+            lastSum = currentSum;
+            currentDate = DateCodec.formatIso(journalDay);
+            day = journalDay;
+        }
+        if (journalDay == day) {
+            currentSum = addJournal.getArrows();
+            totalScoreSum = addJournal.getPoints();
+            totalScoreCount = addJournal.getScoredArrows();
+        } else {
+            // Premier lancement avec le journal : il part des compteurs enregistrés
+            addJournal.startDay(day, currentSum, Math.round(totalScoreSum), totalScoreCount);
         }
-        
-        editor.apply();
+    }
+
+    private void putHistoryDay(int day, int count) {
+        // Sans effet si le jour a déjà cette valeur
+        historyRepository.setDay(day, count);
     }
 
     private String getCurrentDateString() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        return sdf.format(new Date());
+        // Chaîne prise dans la table du codec
+        return DateCodec.formatIso(DateCodec.today());
     }
 
     private void checkDailyReset() {
         String today = getCurrentDateString();
         if (!today.equals(currentDate)) {
             // Sauvegarder le total du jour précédent dans l'historique
-            // Même si c'est 0, on l'enregistre pour les stats
-            arrowHistory.put(currentDate, currentSum);
+            // (un jour à 0 n'est pas stocké : les stats le comptent quand même)
+            putHistoryDay(DateCodec.parseIso(currentDate), currentSum);
             
             // Réinitialiser pour le nouveau jour
             lastSum = currentSum;
             currentSum = 0;
-            lastAddedValue = 0;
             lastResetTime = SystemClock.elapsedRealtime();
             currentDate = today;
+            // Le journal repart à zéro : les ajouts de la veille ne s'annulent plus
+            addJournal.startDay(DateCodec.parseIso(today), 0, 0, 0);
+            dayTicker.setOrigin(lastResetTime);
             
             // Réinitialiser les scores du jour
             totalScoreSum = 0.0f;
@@ -316,85 +462,82 @@ public class MainActivity extends AppCompatActivity {
 
         try {
             int number = Integer.parseInt(input);
+            // Journalisé avant la sauvegarde différée des compteurs
+            addJournal.recordCount(DateCodec.parseIso(currentDate), number);
             currentSum += number;
-            lastAddedValue = number; // Sauvegarde le dernier nombre ajouté
             updateUI();
             saveData();
             editTextNumber.setText(""); // Effacer le champ après l'ajout
-            
-            // Mettre à jour l'état du bouton annuler
-            buttonUndo.setEnabled(lastAddedValue > 0);
         } catch (NumberFormatException e) {
             Toast.makeText(this, "Veuillez entrer un nombre entier valide", Toast.LENGTH_SHORT).show();
         }
     }
 
     private void addScores() {
-        String input = editTextScores.getText().toString();
-        if (TextUtils.isEmpty(input)) {
+        if (editTextScores.getText().length() == 0) {
             Toast.makeText(this, "Veuillez entrer les scores", Toast.LENGTH_SHORT).show();
             return;
         }
 
-        try {
-            String[] scoreStrings = input.split(",");
-            int arrowCount = 0;
-            float scoreSum = 0.0f;
-
-            for (String scoreStr : scoreStrings) {
-                scoreStr = scoreStr.trim();
-                if (!scoreStr.isEmpty()) {
-                    float score = Float.parseFloat(scoreStr);
-                    if (score < 0 || score > 10) {
-                        Toast.makeText(this, "Les scores doivent être entre 0 et 10", Toast.LENGTH_SHORT).show();
-                        return;
-                    }
-                    scoreSum += score;
-                    arrowCount++;
-                }
-            }
-
-            if (arrowCount == 0) {
-                Toast.makeText(this, "Aucun score valide trouvé", Toast.LENGTH_SHORT).show();
-                return;
-            }
+        // Saisie déjà analysée par l'aperçu : scores entiers de 0 à 10, X (10) ou M (manqué, 0)
+        if (scoreInput.hasInvalidScore()) {
+            Toast.makeText(this, "Format de scores invalide. Utilisez: 9,8,10,X,M", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        int arrowCount = scoreInput.getArrowCount();
+        float scoreSum = scoreInput.getPoints();
 
-            // Mettre à jour les compteurs
-            currentSum += arrowCount;
-            totalScoreSum += scoreSum;
-            totalScoreCount += arrowCount;
-            lastAddedValue = arrowCount;
+        if (arrowCount == 0) {
+            Toast.makeText(this, "Aucun score valide trouvé", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (arrowCount > ScoreLog.MAX_END_ARROWS) {
+            Toast.makeText(this, "Trop de scores pour une volée", Toast.LENGTH_SHORT).show();
+            return;
+        }
 
-            updateUI();
-            saveData();
-            editTextScores.setText(""); // Effacer le champ après l'ajout
-            textViewScorePreview.setText("");
-            
-            // Mettre à jour l'état du bouton annuler
-            buttonUndo.setEnabled(lastAddedValue > 0);
+        // Conserver chaque flèche de la volée dans le journal des scores
+        int[] codes = new int[arrowCount];
+        scoreInput.copyCodes(codes);
+        int day = DateCodec.parseIso(currentDate);
+        scoreLog.appendEnd(day, codes, arrowCount);
+        addJournal.recordEnd(day, arrowCount, (int) scoreSum);
 
-            // Afficher un résumé
-            float avgScore = scoreSum / arrowCount;
-            Toast.makeText(this, String.format(Locale.getDefault(), 
-                "%d flèches ajoutées (moyenne: %.1f)", arrowCount, avgScore), 
-                Toast.LENGTH_SHORT).show();
+        // Mettre à jour les compteurs
+        currentSum += arrowCount;
+        totalScoreSum += scoreSum;
+        totalScoreCount += arrowCount;
 
-        } catch (NumberFormatException e) {
-            Toast.makeText(this, "Format de scores invalide. Utilisez: 9,8,10,7", Toast.LENGTH_SHORT).show();
-        }
+        updateUI();
+        saveData();
+        editTextScores.setText(""); // Effacer le champ après l'ajout
+        textViewScorePreview.setText("");
+
+        // Afficher un résumé
+        float avgScore = scoreSum / arrowCount;
+        Toast.makeText(this, String.format(Locale.getDefault(), 
+            "%d flèches ajoutées (moyenne: %.1f)", arrowCount, avgScore), 
+            Toast.LENGTH_SHORT).show();
     }
 
+    // Annule les ajouts du jour un par un, du plus récent au plus ancien
     private void undoLastAdd() {
-        if (lastAddedValue > 0 && currentSum >= lastAddedValue) {
-            currentSum -= lastAddedValue;
-            Toast.makeText(this, "Dernier ajout de " + lastAddedValue + " flèches annulé", Toast.LENGTH_SHORT).show();
-            lastAddedValue = 0;
-            updateUI();
-            saveData();
-            buttonUndo.setEnabled(false);
-        } else {
+        AddJournal.Event undone = addJournal.undo();
+        if (undone == null) {
             Toast.makeText(this, "Rien à annuler", Toast.LENGTH_SHORT).show();
+            return;
         }
+        currentSum -= undone.arrows;
+        if (undone.type == AddJournal.TYPE_ADD_END) {
+            // Volées annulées dans l'ordre inverse : la dernière du journal des scores,
+            // sauf si son écriture a été perdue (la volée précédente reste alors en place)
+            scoreLog.removeLastEnd(undone.day, undone.scored, undone.points);
+            totalScoreSum -= undone.points;
+            totalScoreCount -= undone.scored;
+        }
+        Toast.makeText(this, "Ajout de " + undone.arrows + " flèches annulé", Toast.LENGTH_SHORT).show();
+        updateUI();
+        saveData();
     }
 
     private void openStatsActivity() {
@@ -403,158 +546,150 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void exportDataToCsv() {
-        try {
-            // S'assurer que le répertoire existe
-            File cacheDir = new File(getCacheDir(), "csv");
-            if (!cacheDir.exists()) {
-                cacheDir.mkdirs();
-            }
-
-            // Créer un fichier avec un nom basé sur la date actuelle
-            String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
-            File csvFile = new File(cacheDir, "fleches_tirees_" + timestamp + ".csv");
+        // Inclure le jour actuel même s'il est à 0 ; le fournisseur lit ensuite l'instantané
+        putHistoryDay(DateCodec.parseIso(currentDate), currentSum);
 
-            FileWriter writer = new FileWriter(csvFile);
-
-            // Écrire l'en-tête du CSV
-            writer.append("Date,Flèches tirées\n");
+        if (historyRepository.getSnapshot().size() < GZIP_SUGGESTION_DAYS) {
+            shareExport(false);
+            return;
+        }
 
-            // Créer une map avec toutes les données, incluant les jours avec 0 flèches
-            TreeMap<String, Integer> allData = new TreeMap<>(arrowHistory);
-            if (currentSum >= 0) {  // Inclure le jour actuel même s'il est à 0
-                allData.put(currentDate, currentSum);
-            }
+        // Historique très long : proposer la version compressée
+        new AlertDialog.Builder(this)
+                .setTitle("Exporter l'historique")
+                .setMessage("L'historique est volumineux. Voulez-vous le compresser (gzip) ?")
+                .setPositiveButton("Compresser", (dialog, which) -> shareExport(true))
+                .setNegativeButton("CSV simple", (dialog, which) -> shareExport(false))
+                .show();
+    }
 
-            // Écrire les données
-            for (Map.Entry<String, Integer> entry : allData.entrySet()) {
-                writer.append(formatDateForDisplay(entry.getKey()))
-                      .append(",")
-                      .append(String.valueOf(entry.getValue()))
-                      .append("\n");
-            }
+    private void shareExport(boolean gzip) {
+        // Nom basé sur la date actuelle ; le contenu est produit à la lecture, sans fichier
+        String timestamp = new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.getDefault()).format(new Date());
+        Uri exportUri = CsvExportProvider.buildExportUri(this, "fleches_tirees_" + timestamp + ".csv", gzip);
 
-            writer.flush();
-            writer.close();
+        Intent shareIntent = new Intent(Intent.ACTION_SEND);
+        shareIntent.setType(CsvExportProvider.getMimeType(gzip));
+        shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Données des flèches tirées");
+        shareIntent.putExtra(Intent.EXTRA_STREAM, exportUri);
+        shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
 
-            // Partager le fichier
-            shareFile(csvFile);
+        startActivity(Intent.createChooser(shareIntent, "Partager via"));
+    }
 
-        } catch (IOException e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Erreur lors de l'exportation : " + e.getMessage(), Toast.LENGTH_LONG).show();
+    // Les anciennes versions écrivaient l'export dans cache/csv sans jamais le supprimer
+    private void deleteLegacyExports() {
+        File legacyDir = new File(getCacheDir(), "csv");
+        File[] files = legacyDir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
         }
+        legacyDir.delete();
     }
 
     private void importDataFromCsv() {
         Intent intent = new Intent(Intent.ACTION_GET_CONTENT);
         intent.setType("text/*");
         intent.addCategory(Intent.CATEGORY_OPENABLE);
+        // Plusieurs exports (appareils, archers, saisons) importés en une fois
+        intent.putExtra(Intent.EXTRA_ALLOW_MULTIPLE, true);
         
         try {
-            csvFileLauncher.launch(Intent.createChooser(intent, "Sélectionner un fichier CSV"));
+            csvFileLauncher.launch(Intent.createChooser(intent, "Sélectionner un ou plusieurs fichiers CSV"));
         } catch (Exception e) {
             Toast.makeText(this, "Erreur lors de l'ouverture du sélecteur de fichier", Toast.LENGTH_SHORT).show();
         }
     }
 
-    private void processCsvFile(Uri csvUri) {
-        try {
-            InputStream inputStream = getContentResolver().openInputStream(csvUri);
-            if (inputStream == null) {
-                Toast.makeText(this, "Impossible de lire le fichier", Toast.LENGTH_SHORT).show();
-                return;
+    private void processCsvFiles(List<Uri> csvUris) {
+        final AlertDialog progressDialog = new AlertDialog.Builder(this)
+                .setTitle("Import en cours")
+                .setMessage("Lecture des fichiers...")
+                .setNegativeButton("Annuler", null)
+                .setCancelable(false)
+                .create();
+        // Fichiers lus en parallèle puis fusionnés en un seul historique
+        final CsvBatchImport batch = new CsvBatchImport(getContentResolver(), csvUris, new CsvBatchImport.Listener() {
+            @Override
+            public void onProgress(long bytesRead, long totalBytes) {
+                final String message = totalBytes > 0
+                        ? "Lecture des fichiers... " + (bytesRead * 100 / totalBytes) + " %"
+                        : "Lecture des fichiers... " + (bytesRead / 1024) + " Ko";
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        progressDialog.setMessage(message);
+                    }
+                });
             }
 
-            BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream));
-            String line;
-            boolean isFirstLine = true;
-            Map<String, Integer> importedData = new HashMap<>();
-            int importedCount = 0;
-
-            // Lire le fichier ligne par ligne
-            while ((line = reader.readLine()) != null) {
-                // Ignorer la première ligne (en-tête)
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-
-                // Parser la ligne CSV
-                String[] parts = line.split(",");
-                if (parts.length >= 2) {
-                    try {
-                        String dateStr = parts[0].trim();
-                        int arrowCount = Integer.parseInt(parts[1].trim());
-
-                        // Convertir la date du format d'affichage vers le format interne
-                        String internalDate = convertDisplayDateToInternal(dateStr);
-                        if (internalDate != null) {
-                            importedData.put(internalDate, arrowCount);
-                            importedCount++;
-                        }
-                    } catch (NumberFormatException e) {
-                        // Ignorer les lignes avec des erreurs de format
-                        continue;
+            @Override
+            public void onFinished(final CsvBatchImport finished) {
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        onCsvFilesRead(finished, progressDialog);
                     }
-                }
+                });
             }
-
-            reader.close();
-            inputStream.close();
-
-            if (importedCount > 0) {
-                // Fusionner les données importées avec l'historique existant
-                mergeImportedData(importedData);
-                Toast.makeText(this, "Import réussi : " + importedCount + " entrées importées", Toast.LENGTH_LONG).show();
-            } else {
-                Toast.makeText(this, "Aucune donnée valide trouvée dans le fichier", Toast.LENGTH_SHORT).show();
+        });
+        progressDialog.setOnDismissListener(new android.content.DialogInterface.OnDismissListener() {
+            @Override
+            public void onDismiss(android.content.DialogInterface dialog) {
+                // Le bouton "Annuler" ferme la boîte : arrêter toutes les lectures
+                batch.cancel();
             }
-
-        } catch (IOException e) {
-            e.printStackTrace();
-            Toast.makeText(this, "Erreur lors de la lecture du fichier : " + e.getMessage(), Toast.LENGTH_LONG).show();
-        }
+        });
+        progressDialog.show();
+        batch.start();
     }
 
-    private String convertDisplayDateToInternal(String displayDate) {
-        try {
-            // Convertir de dd/MM/yyyy vers yyyy-MM-dd
-            SimpleDateFormat displayFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-            SimpleDateFormat internalFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            Date date = displayFormat.parse(displayDate);
-            return date != null ? internalFormat.format(date) : null;
-        } catch (ParseException e) {
-            // Essayer aussi le format anglais MM/dd/yyyy
-            try {
-                SimpleDateFormat usFormat = new SimpleDateFormat("MM/dd/yyyy", Locale.getDefault());
-                SimpleDateFormat internalFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                Date date = usFormat.parse(displayDate);
-                return date != null ? internalFormat.format(date) : null;
-            } catch (ParseException e2) {
-                // Essayer le format interne directement
-                try {
-                    SimpleDateFormat internalFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-                    Date date = internalFormat.parse(displayDate);
-                    return date != null ? displayDate : null;
-                } catch (ParseException e3) {
-                    return null;
-                }
-            }
+    private void onCsvFilesRead(CsvBatchImport batch, AlertDialog progressDialog) {
+        // Fermée dans tous les cas (même activité détruite) pour ne pas garder sa fenêtre
+        if (progressDialog.isShowing()) {
+            progressDialog.dismiss();
+        }
+        if (isDestroyed()) {
+            return;
+        }
+        if (batch.isCancelled()) {
+            Toast.makeText(MainActivity.this, "Import annulé", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        List<String> errors = batch.getErrors();
+        DayHistory importedData = batch.getMerged();
+        if (errors.size() == batch.getFileCount()) {
+            Toast.makeText(this, errors.get(0), Toast.LENGTH_LONG).show();
+        } else if (importedData != null && !importedData.isEmpty()) {
+            // Une seule confirmation pour l'ensemble des fichiers
+            // Le jour en cours appartient au compteur : l'import ne le modifie pas
+            importedData = withoutDay(importedData, DateCodec.parseIso(currentDate));
+            // Le nombre d'entrées lues est annoncé une fois la fusion confirmée
+            mergeImportedData(importedData, batch.getImportedRows(), batch.getFileCount(), errors,
+                    HistoryMerge.REPLACE);
+        } else {
+            Toast.makeText(this, "Aucune donnée valide trouvée dans les fichiers", Toast.LENGTH_SHORT).show();
         }
     }
 
-    private void mergeImportedData(Map<String, Integer> importedData) {
-        // Compter combien d'entrées existantes seraient écrasées
-        int overwriteCount = 0;
-        for (String date : importedData.keySet()) {
-            if (arrowHistory.containsKey(date)) {
-                overwriteCount++;
-            }
-        }
+    private void mergeImportedData(final DayHistory importedData, final int importedRows, final int fileCount,
+                                   final List<String> errors, final int strategy) {
+        // Aperçu exact : même parcours que la fusion, sans rien construire
+        HistoryMerge.Preview preview = historyRepository.getSnapshot().previewMerge(importedData, strategy);
 
-        String message = "Prêt à importer " + importedData.size() + " entrées.";
-        if (overwriteCount > 0) {
-            message += "\n\nAttention : " + overwriteCount + " entrées existantes seront remplacées.";
+        String message = "Prêt à importer " + importedData.size() + " entrées";
+        message += fileCount > 1 ? " issues de " + fileCount + " fichiers." : ".";
+        if (!errors.isEmpty()) {
+            message += "\n\n" + errors.size() + " fichier(s) ignoré(s) :\n" + TextUtils.join("\n", errors);
+        }
+        message += "\n\nStratégie : " + HistoryMerge.strategyName(strategy);
+        if (preview.isEmpty()) {
+            message += "\nAucun changement dans l'historique.";
+        } else {
+            message += String.format(Locale.getDefault(), "\n%d jours ajoutés, %d jours modifiés (%+d flèches)",
+                    preview.getAddedDays(), preview.getChangedDays(), preview.getArrowDelta());
         }
         message += "\n\nVoulez-vous continuer ?";
 
@@ -563,89 +698,61 @@ public class MainActivity extends AppCompatActivity {
                 .setMessage(message)
                 .setPositiveButton("Importer", (dialog, which) -> {
                     // Procéder à l'import
-                    performDataMerge(importedData);
+                    performDataMerge(importedData, importedRows, strategy);
+                })
+                .setNeutralButton("Stratégie", (dialog, which) -> {
+                    showMergeStrategyDialog(importedData, importedRows, fileCount, errors, strategy);
                 })
                 .setNegativeButton("Annuler", null)
                 .show();
     }
 
-    private void performDataMerge(Map<String, Integer> importedData) {
-        // Trouver la plage de dates dans les données importées
-        String minDate = null;
-        String maxDate = null;
-        
-        for (String date : importedData.keySet()) {
-            if (minDate == null || date.compareTo(minDate) < 0) {
-                minDate = date;
-            }
-            if (maxDate == null || date.compareTo(maxDate) > 0) {
-                maxDate = date;
-            }
+    // Règle pour les jours déjà présents dans l'historique, puis retour à la confirmation
+    private void showMergeStrategyDialog(final DayHistory importedData, final int importedRows,
+                                         final int fileCount, final List<String> errors, int strategy) {
+        CharSequence[] names = new CharSequence[HistoryMerge.strategyCount()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = HistoryMerge.strategyName(i);
         }
+        new AlertDialog.Builder(this)
+                .setTitle("Jours déjà présents")
+                .setSingleChoiceItems(names, strategy, (dialog, which) -> {
+                    dialog.dismiss();
+                    mergeImportedData(importedData, importedRows, fileCount, errors, which);
+                })
+                .setOnCancelListener(dialog -> mergeImportedData(importedData, importedRows, fileCount, errors,
+                        strategy))
+                .show();
+    }
 
-        if (minDate != null && maxDate != null) {
-            // Remplir tous les jours manquants avec 0 flèches dans la plage
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            try {
-                Calendar calendar = Calendar.getInstance();
-                calendar.setTime(sdf.parse(minDate));
-                Date endDate = sdf.parse(maxDate);
-
-                while (!calendar.getTime().after(endDate)) {
-                    String dateString = sdf.format(calendar.getTime());
-                    
-                    // Si la date n'existe pas dans les données importées, ajouter 0
-                    if (!importedData.containsKey(dateString)) {
-                        importedData.put(dateString, 0);
-                    }
-                    
-                    calendar.add(Calendar.DAY_OF_YEAR, 1);
-                }
-            } catch (ParseException e) {
-                e.printStackTrace();
+    private static DayHistory withoutDay(DayHistory days, int excludedDay) {
+        if (!days.contains(excludedDay)) {
+            return days;
+        }
+        DayHistory result = new DayHistory(days.size());
+        for (int i = 0; i < days.size(); i++) {
+            if (days.dayAt(i) != excludedDay) {
+                result.append(days.dayAt(i), days.countAt(i));
             }
         }
+        return result;
+    }
 
-        // Fusionner avec l'historique existant
-        int importedCount = 0;
-        for (Map.Entry<String, Integer> entry : importedData.entrySet()) {
-            arrowHistory.put(entry.getKey(), entry.getValue());
-            importedCount++;
+    private void performDataMerge(DayHistory importedData, int importedRows, int strategy) {
+        // Fusion linéaire avec l'historique existant (un seul nouvel instantané) ;
+        // un jour importé à 0 n'est pas ajouté, et retire le jour existant s'il le remplace
+        int changedCount = historyRepository.mergeDays(importedData, strategy);
+        if (!importedData.isEmpty()) {
+            addJournal.recordImport(importedData.firstDay(), importedData.lastDay(), importedData.size());
         }
-
         // Sauvegarder les données mises à jour
         saveData();
         
         // Mettre à jour l'interface utilisateur
         updateUI();
         
-        Toast.makeText(this, "Import terminé : " + importedCount + " entrées fusionnées", Toast.LENGTH_LONG).show();
-    }
-
-    private void shareFile(File file) {
-        Uri fileUri = FileProvider.getUriForFile(
-                this,
-                getApplicationContext().getPackageName() + ".provider",
-                file);
-
-        Intent shareIntent = new Intent(Intent.ACTION_SEND);
-        shareIntent.setType("text/csv");
-        shareIntent.putExtra(Intent.EXTRA_SUBJECT, "Données des flèches tirées");
-        shareIntent.putExtra(Intent.EXTRA_STREAM, fileUri);
-        shareIntent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
-
-        startActivity(Intent.createChooser(shareIntent, "Partager via"));
-    }
-
-    private String formatDateForDisplay(String dateString) {
-        try {
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            SimpleDateFormat outputFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-            Date date = inputFormat.parse(dateString);
-            return date != null ? outputFormat.format(date) : dateString;
-        } catch (Exception e) {
-            return dateString;
-        }
+        Toast.makeText(this, "Import terminé : " + importedRows + " entrées lues, "
+                + changedCount + " jours ajoutés ou modifiés", Toast.LENGTH_LONG).show();
     }
 
     private void openObjectivesActivity() {
@@ -668,67 +775,142 @@ public class MainActivity extends AppCompatActivity {
     }
 
     private void updateScorePreview() {
-        String input = editTextScores.getText().toString();
-        if (TextUtils.isEmpty(input)) {
+        if (editTextScores.getText().length() == 0) {
             textViewScorePreview.setText("");
             return;
         }
 
-        try {
-            String[] scoreStrings = input.split(",");
-            int arrowCount = 0;
-            float scoreSum = 0.0f;
-            StringBuilder validScores = new StringBuilder();
-
-            for (String scoreStr : scoreStrings) {
-                scoreStr = scoreStr.trim();
-                if (!scoreStr.isEmpty()) {
-                    float score = Float.parseFloat(scoreStr);
-                    if (score >= 0 && score <= 10) {
-                        scoreSum += score;
-                        arrowCount++;
-                        if (validScores.length() > 0) validScores.append(", ");
-                        validScores.append(scoreStr);
-                    }
-                }
-            }
+        if (scoreInput.hasInvalidScore()) {
+            textViewScorePreview.setText("Format invalide");
+            return;
+        }
 
-            if (arrowCount > 0) {
-                float average = scoreSum / arrowCount;
-                textViewScorePreview.setText(String.format(Locale.getDefault(),
-                    "Scores: %s\n%d flèches, moyenne: %.1f",
-                    validScores.toString(), arrowCount, average));
-            } else {
-                textViewScorePreview.setText("Aucun score valide");
+        int arrowCount = scoreInput.getArrowCount();
+        if (arrowCount > 0) {
+            float average = (float) scoreInput.getPoints() / arrowCount;
+            textViewScorePreview.setText(String.format(Locale.getDefault(),
+                "Scores: %s\n%d flèches, moyenne: %.1f",
+                scoreInput.describeScores(), arrowCount, average));
+        } else {
+            textViewScorePreview.setText("Aucun score valide");
+        }
+    }
+
+    // Changement d'archer, nouveau profil ou classements du club
+    private void showArcherDialog() {
+        final int[] archerIds = ArcherProfiles.getArcherIds(this);
+        CharSequence[] items = new CharSequence[archerIds.length + 2];
+        int checked = -1;
+        for (int i = 0; i < archerIds.length; i++) {
+            items[i] = ArcherProfiles.getName(this, archerIds[i]);
+            if (archerIds[i] == archerId) {
+                checked = i;
             }
+        }
+        items[archerIds.length] = "Nouvel archer…";
+        items[archerIds.length + 1] = "Classements du club";
 
-        } catch (NumberFormatException e) {
-            textViewScorePreview.setText("Format invalide");
+        new AlertDialog.Builder(this)
+                .setTitle("Archer")
+                .setSingleChoiceItems(items, checked, new android.content.DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(android.content.DialogInterface dialog, int which) {
+                        dialog.dismiss();
+                        if (which < archerIds.length) {
+                            switchArcher(archerIds[which]);
+                        } else if (which == archerIds.length) {
+                            showNewArcherDialog();
+                        } else {
+                            showLeaderboards();
+                        }
+                    }
+                })
+                .setNegativeButton("Annuler", null)
+                .show();
+    }
+
+    private void showNewArcherDialog() {
+        final EditText editTextName = new EditText(this);
+        editTextName.setHint("Nom de l'archer");
+        editTextName.setSingleLine(true);
+        new AlertDialog.Builder(this)
+                .setTitle("Nouvel archer")
+                .setView(editTextName)
+                .setPositiveButton("Créer", new android.content.DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(android.content.DialogInterface dialog, int which) {
+                        String name = editTextName.getText().toString().trim();
+                        if (name.isEmpty()) {
+                            Toast.makeText(MainActivity.this, "Veuillez entrer un nom", Toast.LENGTH_SHORT).show();
+                            return;
+                        }
+                        switchArcher(ArcherProfiles.addArcher(MainActivity.this, name));
+                    }
+                })
+                .setNegativeButton("Annuler", null)
+                .show();
+    }
+
+    private void switchArcher(int newArcherId) {
+        if (newArcherId == archerId) {
+            return;
+        }
+        // onPause() enregistre l'archer courant avant le rechargement sur le nouveau profil
+        ArcherProfiles.setActiveArcherId(this, newArcherId);
+        recreate();
+    }
+
+    private void showLeaderboards() {
+        StringBuilder text = new StringBuilder("Flèches cette semaine\n");
+        int rank = 1;
+        for (ClubLeaderboard.Entry entry : ClubLeaderboard.weeklyArrows(this)) {
+            text.append(rank++).append(". ").append(entry.name)
+                    .append(" : ").append((long) entry.value).append(" flèches\n");
+        }
+
+        text.append("\nMoyenne des scores ce mois-ci\n");
+        List<ClubLeaderboard.Entry> averages = ClubLeaderboard.monthlyAverageScore(this);
+        if (averages.isEmpty()) {
+            text.append("Aucun score enregistré\n");
         }
+        rank = 1;
+        for (ClubLeaderboard.Entry entry : averages) {
+            text.append(rank++).append(". ").append(entry.name)
+                    .append(String.format(Locale.getDefault(), " : %.2f\n", entry.value));
+        }
+
+        new AlertDialog.Builder(this)
+                .setTitle("Classements du club")
+                .setMessage(text.toString().trim())
+                .setPositiveButton("OK", null)
+                .show();
     }
 
     private void updateObjectiveDisplay() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        SharedPreferences prefs = getSharedPreferences(ArcherProfiles.prefsName(archerId), Context.MODE_PRIVATE);
         boolean hasObjective = prefs.getBoolean(KEY_OBJECTIVE_ACTIVE, false);
 
         if (hasObjective) {
             int targetArrows = prefs.getInt(KEY_OBJECTIVE_TARGET, 0);
-            String endDate = prefs.getString(KEY_OBJECTIVE_END_DATE, "");
+            Objective objective = new Objective(prefs.getInt(KEY_OBJECTIVE_TYPE, 0), targetArrows,
+                    DateCodec.parseIso(prefs.getString(KEY_OBJECTIVE_START_DATE, "")),
+                    DateCodec.parseIso(prefs.getString(KEY_OBJECTIVE_END_DATE, "")));
             
-            // Calculer le progrès depuis le début de l'objectif
-            String startDate = prefs.getString(KEY_OBJECTIVE_START_DATE, "");
-            int progress = calculateObjectiveProgress(startDate);
+            // Calculer le progrès depuis le début de l'objectif (index par plage
+            // jusqu'à hier, plus les flèches du jour actuel)
+            int today = DateCodec.today();
+            int progress = objective.progress(historyRepository.getSnapshot(), today, currentSum);
             
             textViewObjectiveProgress.setText(String.format("%d/%d", progress, targetArrows));
             
             // Calculer l'objectif quotidien
-            String dailyGoalMessage = calculateDailyGoalMessage(targetArrows, progress, endDate);
+            String dailyGoalMessage = calculateDailyGoalMessage(objective, progress, today);
             textViewDailyGoal.setText(dailyGoalMessage);
             
             layoutObjective.setVisibility(View.VISIBLE);
             
             // Changer la couleur selon le progrès
-            if (progress >= targetArrows) {
+            if (objective.isReached(progress)) {
                 textViewObjectiveProgress.setTextColor(0xFF4CAF50); // Vert
                 textViewDailyGoal.setText("🎯 Objectif atteint ! Félicitations !");
                 textViewDailyGoal.setTextColor(0xFF4CAF50);
@@ -741,25 +923,21 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private String calculateDailyGoalMessage(int targetArrows, int currentProgress, String endDate) {
+    private String calculateDailyGoalMessage(Objective objective, int currentProgress, int today) {
         try {
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            Date end = dateFormat.parse(endDate);
-            Date now = new Date();
-            
-            long diffInMillies = end.getTime() - now.getTime();
-            int daysRemaining = (int) (diffInMillies / (1000 * 60 * 60 * 24)) + 1; // +1 pour inclure aujourd'hui
+            if (objective.getEndDay() == DateCodec.INVALID_DAY) {
+                return "Erreur de calcul de l'objectif";
+            }
             
-            if (daysRemaining <= 0) {
+            if (objective.daysRemaining(today) <= 0) {
                 return "⏰ Objectif terminé";
             }
             
-            int remainingArrows = targetArrows - currentProgress;
-            if (remainingArrows <= 0) {
+            if (objective.isReached(currentProgress)) {
                 return "🎯 Objectif déjà atteint !";
             }
             
-            int dailyTarget = (int) Math.ceil((double) remainingArrows / daysRemaining);
+            int dailyTarget = objective.dailyTarget(currentProgress, today);
             int alreadyToday = currentSum; // Flèches déjà tirées aujourd'hui
             int stillNeededToday = Math.max(0, dailyTarget - alreadyToday);
             
@@ -775,30 +953,15 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    private int calculateObjectiveProgress(String startDate) {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        Map<String, ?> allPrefs = prefs.getAll();
-        
-        int totalArrows = 0;
-        String currentDate = getCurrentDateString();
-        
-        // Compter les flèches depuis la date de début
-        for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
-            if (entry.getKey().startsWith(KEY_ARROW_HISTORY_PREFIX)) {
-                String date = entry.getKey().substring(KEY_ARROW_HISTORY_PREFIX.length());
-                if (date.compareTo(startDate) >= 0 && date.compareTo(currentDate) <= 0) {
-                    totalArrows += (Integer) entry.getValue();
-                }
-            }
+    private void updateUI() {
+        // Publier le compte du jour en direct pour les autres écrans, seulement
+        // s'il a changé depuis la dernière publication (pas à chaque rafraîchissement)
+        if (currentSum != publishedSum || !currentDate.equals(publishedDate)) {
+            putHistoryDay(DateCodec.parseIso(currentDate), currentSum);
+            publishedDate = currentDate;
+            publishedSum = currentSum;
         }
-        
-        // Ajouter les flèches du jour actuel
-        totalArrows += currentSum;
-        
-        return totalArrows;
-    }
 
-    private void updateUI() {
         textViewSum.setText(String.valueOf(currentSum));
         textViewLastSum.setText("Somme précédente : " + lastSum);
         
@@ -815,52 +978,13 @@ public class MainActivity extends AppCompatActivity {
         updateObjectiveDisplay();
         
         // Mettre à jour l'état du bouton annuler
-        buttonUndo.setEnabled(lastAddedValue > 0);
+        buttonUndo.setEnabled(addJournal.getUndoDepth() > 0);
     }
 
     private void updateHistoryDisplay() {
-        historyContainer.removeAllViews();
-        
-        // Afficher le titre de l'historique
-        TextView titleView = new TextView(this);
-        titleView.setText("Historique des flèches tirées :");
-        titleView.setTextSize(18);
-        titleView.setPadding(0, 16, 0, 8);
-        historyContainer.addView(titleView);
-        
-        // Créer une map complète incluant le jour actuel
-        TreeMap<String, Integer> completeHistory = new TreeMap<>(arrowHistory);
-        completeHistory.put(currentDate, currentSum);
-        
-        // Afficher l'historique dans l'ordre chronologique inverse (plus récent en haut)
-        for (Map.Entry<String, Integer> entry : completeHistory.descendingMap().entrySet()) {
-            TextView entryView = new TextView(this);
-            String dayLabel = entry.getKey().equals(currentDate) ? " (aujourd'hui)" : "";
-            String arrowText = entry.getValue() == 1 ? " flèche" : " flèches";
-            entryView.setText(formatDate(entry.getKey()) + dayLabel + " : " + entry.getValue() + arrowText);
-            entryView.setTextSize(16);
-            entryView.setPadding(16, 8, 0, 8);
-            historyContainer.addView(entryView);
-        }
-        
-        // Faire défiler vers le haut pour voir les entrées les plus récentes
-        historyScrollView.post(new Runnable() {
-            @Override
-            public void run() {
-                historyScrollView.fullScroll(ScrollView.FOCUS_UP);
-            }
-        });
-    }
-    
-    private String formatDate(String dateString) {
-        try {
-            SimpleDateFormat inputFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            SimpleDateFormat outputFormat = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-            Date date = inputFormat.parse(dateString);
-            return date != null ? outputFormat.format(date) : dateString;
-        } catch (Exception e) {
-            return dateString;
-        }
+        // Les lignes sont mises à jour par l'écouteur de l'historique ;
+        // seul le libellé "(aujourd'hui)" dépend du jour courant
+        historyAdapter.setToday(DateCodec.parseIso(currentDate));
     }
 
     private void updateDurationText() {
@@ -881,41 +1005,51 @@ public class MainActivity extends AppCompatActivity {
         textViewDuration.setText(durationText);
     }
 
-    private void startDurationUpdates() {
-        // Mettre à jour la durée toutes les secondes
-        new Thread(new Runnable() {
-            @Override
-            public void run() {
-                while (!isFinishing()) {
-                    runOnUiThread(new Runnable() {
-                        @Override
-                        public void run() {
-                            updateDurationText();
-                            // Vérifier périodiquement si nous sommes sur un nouveau jour
-                            checkDailyReset();
-                        }
-                    });
-                    try {
-                        Thread.sleep(1000); // Attendre 1 seconde
-                    } catch (InterruptedException e) {
-                        e.printStackTrace();
-                    }
-                }
-            }
-        }).start();
+    @Override
+    protected void onStart() {
+        super.onStart();
+        visible = true;
+        if (isDataLoaded()) {
+            dayTicker.start(lastResetTime);
+        }
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Plus aucun battement tant que l'écran n'est pas visible
+        visible = false;
+        dayTicker.stop();
     }
 
     @Override
     protected void onPause() {
         super.onPause();
-        // Sauvegarder le jour actuel dans l'historique même s'il est à 0
-        arrowHistory.put(currentDate, currentSum);
+        if (!isDataLoaded()) {
+            return;
+        }
+        // Sauvegarder le jour actuel dans l'historique (retiré s'il est revenu à 0)
+        putHistoryDay(DateCodec.parseIso(currentDate), currentSum);
         saveData(); // Sauvegarder les données lorsque l'application est mise en pause
+        // Le processus peut être tué après onPause : attendre la fin de l'écriture
+        ioScheduler.flushNow(flushTask);
     }
     
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (historyListener != null) {
+            historyRepository.removeListener(historyListener);
+        }
+    }
+
     @Override
     protected void onResume() {
         super.onResume();
+        if (!isDataLoaded()) {
+            // onDataLoaded() fera la mise à jour
+            return;
+        }
         // Vérifier si un jour s'est écoulé pendant que l'app était fermée
         checkDailyReset();
         updateUI();
@@ -14,11 +14,6 @@ import android.widget.Toast;
 
 import androidx.appcompat.app.AppCompatActivity;
 
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Date;
-import java.util.Locale;
-import java.util.Map;
 
 public class ObjectivesActivity extends AppCompatActivity {
 
@@ -30,16 +25,15 @@ public class ObjectivesActivity extends AppCompatActivity {
     private TextView textViewPreview;
     private Button buttonCancel;
     private Button buttonSaveObjective;
+    // Chargé sur le thread d'E/S (null en attendant)
+    private HistoryRepository historyRepository;
 
     // Clés SharedPreferences
-    private static final String PREFS_NAME = "SumAppPrefs";
     private static final String KEY_OBJECTIVE_ACTIVE = "objectiveActive";
     private static final String KEY_OBJECTIVE_TYPE = "objectiveType"; // 0=semaine, 1=mois, 2=année
     private static final String KEY_OBJECTIVE_TARGET = "objectiveTarget";
     private static final String KEY_OBJECTIVE_START_DATE = "objectiveStartDate";
     private static final String KEY_OBJECTIVE_END_DATE = "objectiveEndDate";
-    private static final String KEY_CURRENT_SUM = "currentSum";
-    private static final String KEY_ARROW_HISTORY_PREFIX = "arrowHistory_";
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -56,8 +50,9 @@ public class ObjectivesActivity extends AppCompatActivity {
         buttonCancel = findViewById(R.id.buttonCancel);
         buttonSaveObjective = findViewById(R.id.buttonSaveObjective);
 
-        // Affichage de l'objectif actuel
+        // Affichage de l'objectif actuel, progrès compris une fois l'historique chargé
         updateCurrentObjectiveDisplay();
+        loadHistory();
 
         // Écouteurs d'événements
         buttonStopObjective.setOnClickListener(new View.OnClickListener() {
@@ -108,7 +103,7 @@ public class ObjectivesActivity extends AppCompatActivity {
     }
 
     private void updateCurrentObjectiveDisplay() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        SharedPreferences prefs = getSharedPreferences(ArcherProfiles.prefsName(this), Context.MODE_PRIVATE);
         boolean hasObjective = prefs.getBoolean(KEY_OBJECTIVE_ACTIVE, false);
 
         if (hasObjective) {
@@ -122,19 +117,27 @@ public class ObjectivesActivity extends AppCompatActivity {
 
             textViewCurrentObjective.setText(String.format("Objectif %s : %d flèches", periodText, targetArrows));
             
-            // Calculer le progrès
-            int currentProgress = calculateCurrentProgress(startDate);
-            int daysRemaining = calculateDaysRemaining(endDate);
-            int dailyTarget = calculateDailyTarget(targetArrows, currentProgress, daysRemaining);
-
-            String progressText = String.format(
-                "Progrès : %d/%d flèches\n" +
-                "Flèches par jour recommandées : %d\n" +
-                "Jours restants : %d",
-                currentProgress, targetArrows, dailyTarget, daysRemaining
-            );
-
-            textViewCurrentProgress.setText(progressText);
+            if (historyRepository == null) {
+                // Progrès affiché dès que l'historique est chargé
+                textViewCurrentProgress.setText("Chargement de l'historique…");
+            } else {
+                // Calculer le progrès
+                Objective objective = new Objective(objectiveType, targetArrows,
+                        DateCodec.parseIso(startDate), DateCodec.parseIso(endDate));
+                int today = DateCodec.today();
+                int currentProgress = calculateCurrentProgress(objective, today);
+                int daysRemaining = objective.daysRemaining(today);
+                int dailyTarget = objective.dailyTarget(currentProgress, today);
+
+                String progressText = String.format(
+                    "Progrès : %d/%d flèches\n" +
+                    "Flèches par jour recommandées : %d\n" +
+                    "Jours restants : %d",
+                    currentProgress, targetArrows, dailyTarget, daysRemaining
+                );
+
+                textViewCurrentProgress.setText(progressText);
+            }
             buttonStopObjective.setVisibility(View.VISIBLE);
         } else {
             textViewCurrentObjective.setText("Aucun objectif défini");
@@ -143,6 +146,26 @@ public class ObjectivesActivity extends AppCompatActivity {
         }
     }
 
+    // L'historique n'est lu dans la base qu'à sa première utilisation dans le processus :
+    // jamais sur le thread principal
+    private void loadHistory() {
+        IoScheduler.getInstance().execute(new Runnable() {
+            @Override
+            public void run() {
+                final HistoryRepository repository = HistoryRepository.getInstance(ObjectivesActivity.this);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!isDestroyed()) {
+                            historyRepository = repository;
+                            updateCurrentObjectiveDisplay();
+                        }
+                    }
+                });
+            }
+        });
+    }
+
     private void updatePreview() {
         String targetStr = editTextTargetArrows.getText().toString();
         if (targetStr.isEmpty()) {
@@ -155,29 +178,14 @@ public class ObjectivesActivity extends AppCompatActivity {
             int selectedPeriod = getSelectedPeriod();
             
             // Calculer le nombre de jours réels selon la période
-            Calendar startCal = Calendar.getInstance();
-            Calendar endCal = Calendar.getInstance();
-            int days;
+            int days = Objective.forPeriod(selectedPeriod, target, DateCodec.today()).getNumberOfDays();
             String periodDescription;
             
             if (selectedPeriod == 0) { // Semaine
-                // Du lundi au dimanche de cette semaine
-                int dayOfWeek = startCal.get(Calendar.DAY_OF_WEEK);
-                int daysFromMonday = (dayOfWeek == Calendar.SUNDAY) ? 6 : dayOfWeek - Calendar.MONDAY;
-                startCal.add(Calendar.DAY_OF_YEAR, -daysFromMonday);
-                endCal.setTime(startCal.getTime());
-                endCal.add(Calendar.DAY_OF_YEAR, 6);
-                days = 7;
                 periodDescription = "cette semaine (lundi-dimanche)";
             } else if (selectedPeriod == 1) { // Mois
-                // Du 1er à la fin du mois courant
-                startCal.set(Calendar.DAY_OF_MONTH, 1);
-                days = startCal.getActualMaximum(Calendar.DAY_OF_MONTH);
                 periodDescription = "ce mois (1er-" + days + ")";
             } else { // Année
-                // Du 1er janvier au 31 décembre
-                startCal.set(Calendar.DAY_OF_YEAR, 1);
-                days = startCal.getActualMaximum(Calendar.DAY_OF_YEAR);
                 periodDescription = "cette année (1er janv-31 déc)";
             }
             
@@ -220,37 +228,13 @@ public class ObjectivesActivity extends AppCompatActivity {
 
             int selectedPeriod = getSelectedPeriod();
             
-            // Calculer les dates de début et fin
-            Calendar startCal = Calendar.getInstance();
-            Calendar endCal = Calendar.getInstance();
-            
-            if (selectedPeriod == 0) { // Semaine
-                // Commencer au lundi de cette semaine
-                int dayOfWeek = startCal.get(Calendar.DAY_OF_WEEK);
-                int daysFromMonday = (dayOfWeek == Calendar.SUNDAY) ? 6 : dayOfWeek - Calendar.MONDAY;
-                startCal.add(Calendar.DAY_OF_YEAR, -daysFromMonday);
-                endCal.setTime(startCal.getTime());
-                endCal.add(Calendar.DAY_OF_YEAR, 6);
-            } else if (selectedPeriod == 1) { // Mois
-                // Commencer au 1er du mois
-                startCal.set(Calendar.DAY_OF_MONTH, 1);
-                endCal.setTime(startCal.getTime());
-                endCal.add(Calendar.MONTH, 1);
-                endCal.add(Calendar.DAY_OF_YEAR, -1);
-            } else { // Année
-                // Commencer au 1er janvier
-                startCal.set(Calendar.DAY_OF_YEAR, 1);
-                endCal.setTime(startCal.getTime());
-                endCal.add(Calendar.YEAR, 1);
-                endCal.add(Calendar.DAY_OF_YEAR, -1);
-            }
-
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            String startDate = dateFormat.format(startCal.getTime());
-            String endDate = dateFormat.format(endCal.getTime());
+            // Dates de début et fin de la période courante
+            Objective objective = Objective.forPeriod(selectedPeriod, target, DateCodec.today());
+            String startDate = DateCodec.formatIso(objective.getStartDay());
+            String endDate = DateCodec.formatIso(objective.getEndDay());
 
             // Sauvegarder l'objectif
-            SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+            SharedPreferences prefs = getSharedPreferences(ArcherProfiles.prefsName(this), Context.MODE_PRIVATE);
             SharedPreferences.Editor editor = prefs.edit();
             editor.putBoolean(KEY_OBJECTIVE_ACTIVE, true);
             editor.putInt(KEY_OBJECTIVE_TYPE, selectedPeriod);
@@ -268,7 +252,7 @@ public class ObjectivesActivity extends AppCompatActivity {
     }
 
     private void stopCurrentObjective() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        SharedPreferences prefs = getSharedPreferences(ArcherProfiles.prefsName(this), Context.MODE_PRIVATE);
         SharedPreferences.Editor editor = prefs.edit();
         editor.putBoolean(KEY_OBJECTIVE_ACTIVE, false);
         editor.apply();
@@ -277,48 +261,9 @@ public class ObjectivesActivity extends AppCompatActivity {
         updateCurrentObjectiveDisplay();
     }
 
-    private int calculateCurrentProgress(String startDate) {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        Map<String, ?> allPrefs = prefs.getAll();
-        
-        int totalArrows = 0;
-        String currentDate = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault()).format(new Date());
-        
-        // Compter les flèches depuis la date de début
-        for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
-            if (entry.getKey().startsWith(KEY_ARROW_HISTORY_PREFIX)) {
-                String date = entry.getKey().substring(KEY_ARROW_HISTORY_PREFIX.length());
-                if (date.compareTo(startDate) >= 0 && date.compareTo(currentDate) <= 0) {
-                    totalArrows += (Integer) entry.getValue();
-                }
-            }
-        }
-        
-        // Ajouter les flèches du jour actuel
-        totalArrows += prefs.getInt(KEY_CURRENT_SUM, 0);
-        
-        return totalArrows;
-    }
-
-    private int calculateDaysRemaining(String endDate) {
-        try {
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-            Date end = dateFormat.parse(endDate);
-            Date now = new Date();
-            
-            long diffInMillies = end.getTime() - now.getTime();
-            int days = (int) (diffInMillies / (1000 * 60 * 60 * 24)) + 1; // +1 pour inclure aujourd'hui
-            
-            return Math.max(0, days);
-        } catch (Exception e) {
-            return 0;
-        }
-    }
-
-    private int calculateDailyTarget(int totalTarget, int currentProgress, int daysRemaining) {
-        if (daysRemaining <= 0) return 0;
-        
-        int remainingArrows = totalTarget - currentProgress;
-        return Math.max(0, (int) Math.ceil((double) remainingArrows / daysRemaining));
+    private int calculateCurrentProgress(Objective objective, int today) {
+        // Le jour actuel compris : l'historique partagé contient le compte du jour en direct
+        HistorySnapshot snapshot = historyRepository.getSnapshot();
+        return objective.progress(snapshot, today, snapshot.get(today, 0));
     }
 } 
\ No newline at end of file
@@ -0,0 +1,99 @@
+package com.example.sumapp;
+
+import android.content.SharedPreferences;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Suivi des modifications depuis la dernière sauvegarde : seuls les champs
+// et les jours qui ont changé sont réécrits lors du flush().
+// Les put*() viennent du thread principal, flush() du thread d'E/S (IoScheduler)
+public class PendingChanges {
+
+    private final SharedPreferences prefs;
+    private final HistoryRepository historyRepository;
+
+    // Dernières valeurs écrites, pour ignorer les champs inchangés
+    private final Map<String, Object> persistedScalars = new HashMap<>();
+    private final Map<String, Object> dirtyScalars = new HashMap<>();
+
+    public PendingChanges(SharedPreferences prefs, HistoryRepository historyRepository) {
+        this.prefs = prefs;
+        this.historyRepository = historyRepository;
+        persistedScalars.putAll(prefs.getAll());
+    }
+
+    public void putInt(String key, int value) {
+        putScalar(key, value);
+    }
+
+    public void putLong(String key, long value) {
+        putScalar(key, value);
+    }
+
+    public void putFloat(String key, float value) {
+        putScalar(key, value);
+    }
+
+    public void putBoolean(String key, boolean value) {
+        putScalar(key, value);
+    }
+
+    public void putString(String key, String value) {
+        putScalar(key, value);
+    }
+
+    private synchronized void putScalar(String key, Object value) {
+        if (value.equals(persistedScalars.get(key))) {
+            // Revenu à la valeur déjà enregistrée : rien à écrire
+            dirtyScalars.remove(key);
+        } else {
+            dirtyScalars.put(key, value);
+        }
+    }
+
+    // Les jours modifiés sont suivis par HistoryRepository.setDay()
+    public boolean hasChanges() {
+        synchronized (this) {
+            if (!dirtyScalars.isEmpty()) {
+                return true;
+            }
+        }
+        return historyRepository.hasPendingDays();
+    }
+
+    // Écriture synchrone : à appeler sur le thread d'E/S
+    public void flush() {
+        Map<String, Object> toWrite = null;
+        synchronized (this) {
+            if (!dirtyScalars.isEmpty()) {
+                // Considérées comme écrites dès maintenant : un put() pendant l'écriture
+                // est comparé à ces valeurs
+                toWrite = new HashMap<>(dirtyScalars);
+                persistedScalars.putAll(dirtyScalars);
+                dirtyScalars.clear();
+            }
+        }
+
+        if (toWrite != null) {
+            SharedPreferences.Editor editor = prefs.edit();
+            for (Map.Entry<String, Object> entry : toWrite.entrySet()) {
+                Object value = entry.getValue();
+                if (value instanceof Integer) {
+                    editor.putInt(entry.getKey(), (Integer) value);
+                } else if (value instanceof Long) {
+                    editor.putLong(entry.getKey(), (Long) value);
+                } else if (value instanceof Float) {
+                    editor.putFloat(entry.getKey(), (Float) value);
+                } else if (value instanceof Boolean) {
+                    editor.putBoolean(entry.getKey(), (Boolean) value);
+                } else {
+                    editor.putString(entry.getKey(), (String) value);
+                }
+            }
+            editor.commit();
+        }
+
+        historyRepository.flush();
+    }
+}
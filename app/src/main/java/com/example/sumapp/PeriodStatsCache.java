@@ -0,0 +1,87 @@
+package com.example.sumapp;
+
+import android.content.Context;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Cache LRU des statistiques calculées, partagé par le processus : il survit
+// aux rotations et aux retours sur une période déjà vue. Une entrée n'est
+// retirée que si un jour de sa plage change ; les autres restent valables
+// pour la nouvelle version de l'historique
+public class PeriodStatsCache implements HistoryRepository.OnHistoryVersionListener {
+
+    private static final int MAX_ENTRIES = 32;
+
+    // Un cache par archer, abonné à l'historique de cet archer
+    private static final Map<Integer, PeriodStatsCache> instances = new HashMap<>();
+
+    // Résultat et dernière version de l'historique pour laquelle il est valable
+    private static class CachedStats {
+        final PeriodStats stats;
+        long validVersion;
+
+        CachedStats(PeriodStats stats, long validVersion) {
+            this.stats = stats;
+            this.validVersion = validVersion;
+        }
+    }
+
+    // Ordre d'accès : l'entrée la moins récemment lue est évincée en premier
+    private final LinkedHashMap<Long, CachedStats> entries =
+            new LinkedHashMap<Long, CachedStats>(MAX_ENTRIES, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, CachedStats> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    // Cache de l'archer actif ; à appeler hors du thread principal (charge l'historique)
+    public static synchronized PeriodStatsCache getInstance(Context context) {
+        int archerId = ArcherProfiles.getActiveArcherId(context);
+        PeriodStatsCache instance = instances.get(archerId);
+        if (instance == null) {
+            instance = new PeriodStatsCache();
+            HistoryRepository.getInstance(context, archerId).addVersionListener(instance);
+            instances.put(archerId, instance);
+        }
+        return instance;
+    }
+
+    private PeriodStatsCache() {
+    }
+
+    // null si absent ou calculé sur une version différente de l'historique
+    public synchronized PeriodStats get(int period, int offset, int today, long version) {
+        CachedStats cached = entries.get(key(period, offset, today));
+        return cached != null && cached.validVersion == version ? cached.stats : null;
+    }
+
+    public synchronized void put(PeriodStats stats) {
+        entries.put(key(stats.getPeriod(), stats.getOffset(), stats.getToday()),
+                new CachedStats(stats, stats.getVersion()));
+    }
+
+    @Override
+    public synchronized void onHistoryVersion(int fromDay, int toDay, long newVersion) {
+        Iterator<CachedStats> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CachedStats cached = iterator.next();
+            PeriodStats stats = cached.stats;
+            if (stats.getStartDay() <= toDay && fromDay <= stats.getEndDay()) {
+                // Un jour de la plage a changé
+                iterator.remove();
+            } else if (cached.validVersion == newVersion - 1) {
+                // Plage intacte : toujours exacte pour la nouvelle version
+                cached.validVersion = newVersion;
+            }
+        }
+    }
+
+    // Période (3 bits), date du jour et décalage réunis dans une seule clé
+    private static Long key(int period, int offset, int today) {
+        return ((long) today << 32) | ((long) (offset & 0x1FFFFFFF) << 3) | period;
+    }
+}
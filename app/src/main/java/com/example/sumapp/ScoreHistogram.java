@@ -0,0 +1,96 @@
+package com.example.sumapp;
+
+// Répartition des scores d'un ensemble de flèches : un compteur par code du
+// journal (0 à 10, X, M). Taille fixe et fusionnable ; les scores étant
+// discrets, moyenne et percentiles en sont déduits exactement
+public class ScoreHistogram {
+
+    public static final int CODES = 16;
+
+    // Ordre croissant des scores : M, 0, 1 ... 10, X
+    private static final int[] ORDER = {
+            ScoreCodes.CODE_M, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, ScoreCodes.CODE_X
+    };
+
+    private final int[] counts = new int[CODES];
+
+    public void add(int code) {
+        counts[code]++;
+    }
+
+    public void merge(ScoreHistogram other) {
+        for (int code = 0; code < CODES; code++) {
+            counts[code] += other.counts[code];
+        }
+    }
+
+    // Remplit avec la différence de deux lignes cumulées (voir ScoreLog)
+    void setDifference(int[] cumulative, int fromRow, int toRow) {
+        for (int code = 0; code < CODES; code++) {
+            counts[code] = cumulative[toRow * CODES + code] - cumulative[fromRow * CODES + code];
+        }
+    }
+
+    public int getCount(int code) {
+        return counts[code];
+    }
+
+    public int getTotal() {
+        int total = 0;
+        for (int count : counts) {
+            total += count;
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return getTotal() == 0;
+    }
+
+    public long getPoints() {
+        long points = 0;
+        for (int code = 0; code < CODES; code++) {
+            points += (long) counts[code] * ScoreCodes.valueOf(code);
+        }
+        return points;
+    }
+
+    public float getAverage() {
+        int total = getTotal();
+        return total > 0 ? (float) getPoints() / total : 0;
+    }
+
+    // Code du score au rang q (0 à 1) : 0.5 pour la médiane, 0.1 et 0.9 pour p10 / p90
+    public int percentile(double q) {
+        int total = getTotal();
+        if (total == 0) {
+            return ScoreCodes.CODE_M;
+        }
+        // Rang de la flèche cherchée parmi les scores triés
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int code : ORDER) {
+            seen += counts[code];
+            if (seen >= rank) {
+                return code;
+            }
+        }
+        return ScoreCodes.CODE_X;
+    }
+
+    // "X: 3  10: 12  9: 20 ..." du meilleur au moins bon score, codes absents omis
+    public String describeCounts() {
+        StringBuilder text = new StringBuilder();
+        for (int i = ORDER.length - 1; i >= 0; i--) {
+            int code = ORDER[i];
+            if (counts[code] == 0) {
+                continue;
+            }
+            if (text.length() > 0) {
+                text.append("  ");
+            }
+            text.append(ScoreCodes.labelOf(code)).append(": ").append(counts[code]);
+        }
+        return text.toString();
+    }
+}
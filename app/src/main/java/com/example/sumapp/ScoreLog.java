@@ -0,0 +1,365 @@
+package com.example.sumapp;
+
+import android.content.Context;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.HashMap;
+import java.util.Map;
+
+// Journal de tous les scores flèche par flèche (codes de ScoreCodes) : chaque score
+// tient sur 4 bits dans des blocs de longs qui ne font que grandir, avec
+// le début de chaque volée et de chaque jour. Sur disque, un fichier où
+// chaque volée est ajoutée à la fin (jour, nombre de flèches, scores).
+// Des répartitions cumulées jour par jour, tenues à jour à chaque volée,
+// donnent celle de n'importe quelle plage de jours sans relire les flèches
+public class ScoreLog {
+
+    // Nombre de flèches d'une volée, sur 2 octets dans le fichier
+    public static final int MAX_END_ARROWS = 0xFFFF;
+
+    private static final int FORMAT_VERSION = 1;
+    private static final int RECORD_HEADER_SIZE = 6; // jour (4) + nombre de flèches (2)
+
+    // 16 scores par long, 4096 flèches (2 Ko) par bloc
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final int WORDS_PER_CHUNK = (1 << CHUNK_SHIFT) / 16;
+
+    // Un journal par archer (voir ArcherProfiles)
+    private static final Map<Integer, ScoreLog> instances = new HashMap<>();
+
+    private final File file;
+    private long[][] chunks = new long[4][];
+    private int arrowCount;
+    // Première flèche de chaque volée
+    private int[] endStarts = new int[64];
+    private int endCount;
+    // Jours (croissants) et première flèche de chacun
+    private int[] days = new int[16];
+    private int[] dayStarts = new int[16];
+    private int dayCount;
+    // Ligne d (16 compteurs) : répartition des scores des jours 0 à d - 1 ; ligne 0 à zéro
+    private int[] cumulative = new int[17 * ScoreHistogram.CODES];
+    // Taille valide du fichier, en-tête de version compris (fin de la dernière volée)
+    private long fileLength = 1;
+
+    // À appeler hors du thread principal : lit tout le fichier au premier appel
+    public static ScoreLog getInstance(Context context) {
+        return getInstance(context, ArcherProfiles.getActiveArcherId(context));
+    }
+
+    public static synchronized ScoreLog getInstance(Context context, int archerId) {
+        ScoreLog instance = instances.get(archerId);
+        if (instance == null) {
+            instance = new ScoreLog(new File(context.getApplicationContext().getFilesDir(),
+                    ArcherProfiles.scoreLogFileName(archerId)));
+            instance.load();
+            instances.put(archerId, instance);
+        }
+        return instance;
+    }
+
+    private ScoreLog(File file) {
+        this.file = file;
+    }
+
+    // Ajoute une volée au jour donné (thread principal) ; l'écriture disque passe par le thread d'E/S
+    public synchronized void appendEnd(int day, int[] codes, int count) {
+        if (count <= 0 || count > MAX_END_ARROWS) {
+            throw new IllegalArgumentException("Volée invalide : " + count + " flèches");
+        }
+        addEnd(day, codes, count);
+
+        final byte[] record = encodeRecord(day, codes, count);
+        final long offset = fileLength;
+        fileLength += record.length;
+        IoScheduler.getInstance().submitWrite(new Runnable() {
+            @Override
+            public void run() {
+                writeRecord(offset, record);
+            }
+        });
+    }
+
+    // Retire la dernière volée (annulation) et renvoie la somme de ses points, ou -1 si vide
+    private int removeLastEnd() {
+        if (endCount == 0) {
+            return -1;
+        }
+        int start = endStarts[endCount - 1];
+        int count = arrowCount - start;
+        int sum = valueSum(start, arrowCount);
+        int lastRow = dayCount * ScoreHistogram.CODES;
+        for (int i = start; i < arrowCount; i++) {
+            cumulative[lastRow + code(i)]--;
+        }
+        arrowCount = start;
+        endCount--;
+        if (dayStarts[dayCount - 1] == arrowCount) {
+            dayCount--;
+        }
+
+        fileLength -= RECORD_HEADER_SIZE + (count + 1) / 2;
+        final long newLength = fileLength;
+        IoScheduler.getInstance().submitWrite(new Runnable() {
+            @Override
+            public void run() {
+                truncate(newLength);
+            }
+        });
+        return sum;
+    }
+
+    // Retire la dernière volée seulement si c'est bien celle annulée (jour, flèches
+    // et points) : après un arrêt brutal, l'écriture différée de la volée a pu être
+    // perdue alors que le journal des ajouts l'a enregistrée. Renvoie -1 sinon
+    public synchronized int removeLastEnd(int day, int count, int points) {
+        if (endCount == 0) {
+            return -1;
+        }
+        int start = endStarts[endCount - 1];
+        // Jour de la volée postérieur si l'heure système a reculé (voir addEnd)
+        if (days[dayCount - 1] < day || arrowCount - start != count || valueSum(start, arrowCount) != points) {
+            return -1;
+        }
+        return removeLastEnd();
+    }
+
+    public synchronized int getArrowCount() {
+        return arrowCount;
+    }
+
+    public synchronized int getEndCount() {
+        return endCount;
+    }
+
+    public synchronized int codeAt(int index) {
+        return code(index);
+    }
+
+    // Première flèche de la volée "end"
+    public synchronized int endStart(int end) {
+        return endStarts[end];
+    }
+
+    // Indice de la première flèche tirée le jour "day" ou après
+    public synchronized int firstArrowOnOrAfter(int day) {
+        int index = dayIndex(day);
+        return index < dayCount ? dayStarts[index] : arrowCount;
+    }
+
+    // Répartition des scores des jours fromDay à toDay inclus, en O(log n)
+    public synchronized ScoreHistogram histogram(int fromDay, int toDay) {
+        ScoreHistogram histogram = new ScoreHistogram();
+        if (fromDay <= toDay) {
+            int fromRow = dayIndex(fromDay);
+            int toRow = toDay == Integer.MAX_VALUE ? dayCount : dayIndex(toDay + 1);
+            histogram.setDifference(cumulative, fromRow, toRow);
+        }
+        return histogram;
+    }
+
+    // Indice du premier jour >= day (dayCount si aucun)
+    private int dayIndex(int day) {
+        int low = 0;
+        int high = dayCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (days[mid] < day) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    // Somme des points des flèches [from, to)
+    public synchronized int valueSum(int from, int to) {
+        int sum = 0;
+        for (int i = from; i < to; i++) {
+            sum += ScoreCodes.valueOf(code(i));
+        }
+        return sum;
+    }
+
+    // Ajoute à counts[code] le nombre de flèches [from, to) de chaque code (counts de taille 16)
+    public synchronized void countCodes(int from, int to, int[] counts) {
+        int i = from;
+        while (i < to) {
+            long word = chunks[i >>> CHUNK_SHIFT][(i & CHUNK_MASK) >>> 4] >>> ((i & 15) << 2);
+            // Reste du mot courant, un quartet par flèche
+            int end = Math.min(to, (i | 15) + 1);
+            for (; i < end; i++) {
+                counts[(int) (word & 0xF)]++;
+                word >>>= 4;
+            }
+        }
+    }
+
+    private int code(int index) {
+        long word = chunks[index >>> CHUNK_SHIFT][(index & CHUNK_MASK) >>> 4];
+        return (int) (word >>> ((index & 15) << 2)) & 0xF;
+    }
+
+    private void addEnd(int day, int[] codes, int count) {
+        // Jours croissants : une heure système reculée ne crée pas de jour dans le passé
+        if (dayCount == 0 || day > days[dayCount - 1]) {
+            if (dayCount == days.length) {
+                days = grow(days);
+                dayStarts = grow(dayStarts);
+            }
+            days[dayCount] = day;
+            dayStarts[dayCount] = arrowCount;
+            dayCount++;
+            // Nouvelle ligne cumulée, partant de celle de la veille
+            int row = dayCount * ScoreHistogram.CODES;
+            if (row + ScoreHistogram.CODES > cumulative.length) {
+                int[] grown = new int[cumulative.length * 2];
+                System.arraycopy(cumulative, 0, grown, 0, cumulative.length);
+                cumulative = grown;
+            }
+            System.arraycopy(cumulative, row - ScoreHistogram.CODES, cumulative, row, ScoreHistogram.CODES);
+        }
+        if (endCount == endStarts.length) {
+            endStarts = grow(endStarts);
+        }
+        endStarts[endCount++] = arrowCount;
+
+        for (int i = 0; i < count; i++) {
+            int index = arrowCount + i;
+            int chunk = index >>> CHUNK_SHIFT;
+            if (chunk == chunks.length) {
+                long[][] grown = new long[chunks.length * 2][];
+                System.arraycopy(chunks, 0, grown, 0, chunks.length);
+                chunks = grown;
+            }
+            if (chunks[chunk] == null) {
+                chunks[chunk] = new long[WORDS_PER_CHUNK];
+            }
+            int word = (index & CHUNK_MASK) >>> 4;
+            int shift = (index & 15) << 2;
+            // Effacer le quartet : il peut rester d'une volée annulée
+            chunks[chunk][word] = (chunks[chunk][word] & ~(0xFL << shift)) | ((long) (codes[i] & 0xF) << shift);
+            cumulative[dayCount * ScoreHistogram.CODES + (codes[i] & 0xF)]++;
+        }
+        arrowCount += count;
+    }
+
+    private static int[] grow(int[] values) {
+        int[] grown = new int[values.length * 2];
+        System.arraycopy(values, 0, grown, 0, values.length);
+        return grown;
+    }
+
+    private static byte[] encodeRecord(int day, int[] codes, int count) {
+        byte[] record = new byte[RECORD_HEADER_SIZE + (count + 1) / 2];
+        record[0] = (byte) (day >>> 24);
+        record[1] = (byte) (day >>> 16);
+        record[2] = (byte) (day >>> 8);
+        record[3] = (byte) day;
+        record[4] = (byte) (count >>> 8);
+        record[5] = (byte) count;
+        for (int i = 0; i < count; i++) {
+            record[RECORD_HEADER_SIZE + (i >> 1)] |= (byte) ((codes[i] & 0xF) << ((i & 1) << 2));
+        }
+        return record;
+    }
+
+    private void load() {
+        if (!file.exists()) {
+            return;
+        }
+        byte[] data;
+        try {
+            data = readFully(file);
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (data.length == 0 || data[0] != FORMAT_VERSION) {
+            return;
+        }
+
+        int[] codes = new int[64];
+        int position = 1;
+        while (position + RECORD_HEADER_SIZE <= data.length) {
+            int day = (data[position] & 0xFF) << 24 | (data[position + 1] & 0xFF) << 16
+                    | (data[position + 2] & 0xFF) << 8 | (data[position + 3] & 0xFF);
+            int count = (data[position + 4] & 0xFF) << 8 | (data[position + 5] & 0xFF);
+            int recordEnd = position + RECORD_HEADER_SIZE + (count + 1) / 2;
+            if (count == 0 || recordEnd > data.length) {
+                break; // Dernière volée incomplète (arrêt pendant l'écriture)
+            }
+            if (codes.length < count) {
+                codes = new int[count];
+            }
+            for (int i = 0; i < count; i++) {
+                codes[i] = (data[position + RECORD_HEADER_SIZE + (i >> 1)] >>> ((i & 1) << 2)) & 0xF;
+            }
+            addEnd(day, codes, count);
+            position = recordEnd;
+        }
+        // Les ajouts suivants écrasent une éventuelle fin incomplète
+        fileLength = position;
+    }
+
+    static byte[] readFully(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            byte[] data = new byte[(int) file.length()];
+            int read = 0;
+            while (read < data.length) {
+                int n = in.read(data, read, data.length - read);
+                if (n < 0) {
+                    break;
+                }
+                read += n;
+            }
+            if (read == data.length) {
+                return data;
+            }
+            byte[] partial = new byte[read];
+            System.arraycopy(data, 0, partial, 0, read);
+            return partial;
+        } finally {
+            in.close();
+        }
+    }
+
+    // Thread d'E/S : écrit la volée à sa position, et l'en-tête avant la première
+    private void writeRecord(long offset, byte[] record) {
+        try {
+            RandomAccessFile out = new RandomAccessFile(file, "rw");
+            try {
+                if (offset == 1) {
+                    out.write(FORMAT_VERSION);
+                }
+                out.seek(offset);
+                out.write(record);
+                out.setLength(out.getFilePointer());
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void truncate(long length) {
+        try {
+            RandomAccessFile out = new RandomAccessFile(file, "rw");
+            try {
+                out.setLength(Math.max(length, 1));
+            } finally {
+                out.close();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
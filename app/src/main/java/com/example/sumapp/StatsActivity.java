@@ -1,9 +1,8 @@
 package com.example.sumapp;
 
-import android.content.Context;
-import android.content.SharedPreferences;
 import android.graphics.Color;
 import android.os.Bundle;
+import android.view.MotionEvent;
 import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
@@ -11,6 +10,7 @@ import android.widget.TextView;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.github.mikephil.charting.charts.BarChart;
+import com.github.mikephil.charting.charts.BarLineChartBase;
 import com.github.mikephil.charting.charts.LineChart;
 import com.github.mikephil.charting.components.XAxis;
 import com.github.mikephil.charting.components.YAxis;
@@ -20,26 +20,20 @@ import com.github.mikephil.charting.data.BarEntry;
 import com.github.mikephil.charting.data.Entry;
 import com.github.mikephil.charting.data.LineData;
 import com.github.mikephil.charting.data.LineDataSet;
-import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
+import com.github.mikephil.charting.formatter.ValueFormatter;
+import com.github.mikephil.charting.listener.ChartTouchListener;
+import com.github.mikephil.charting.listener.OnChartGestureListener;
 import com.google.android.material.tabs.TabLayout;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
-import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
-import java.util.TreeMap;
-import java.util.concurrent.TimeUnit;
 
 public class StatsActivity extends AppCompatActivity {
 
     private TextView textViewPeriodTotal;
     private TextView textViewPeriodAverage;
+    private TextView textViewScoreDistribution;
     private TextView textViewCurrentPeriod;
     private LineChart lineChart;
     private BarChart barChart;
@@ -48,22 +42,73 @@ public class StatsActivity extends AppCompatActivity {
     private Button buttonNext;
     private TabLayout tabLayout;
 
-    private Map<String, Integer> arrowHistory = new TreeMap<>();
+    // Historique et calculs, prêts une fois l'historique chargé sur le thread d'E/S (null en attendant)
+    private HistoryRepository historyRepository;
+    // Journal des scores, chargé sur le thread d'E/S (null en attendant)
+    private ScoreLog scoreLog;
+    private PeriodStats displayedStats;
+
+    // Recalculer l'affichage quand l'historique change (jour en cours, import...)
+    private final HistoryRepository.OnHistoryChangedListener historyListener =
+            new HistoryRepository.OnHistoryChangedListener() {
+                @Override
+                public void onHistoryChanged(int fromDay, int toDay) {
+                    updateChartsAndStats();
+                }
+            };
 
-    // Clés pour SharedPreferences
-    private static final String PREFS_NAME = "SumAppPrefs";
-    private static final String KEY_ARROW_HISTORY_PREFIX = "arrowHistory_";
-    private static final String KEY_CURRENT_DATE = "currentDate";
-    private static final String KEY_CURRENT_SUM = "currentSum";
+    // Périodes pour les onglets (voir PeriodStats)
+    private static final int PERIOD_WEEK = PeriodStats.PERIOD_WEEK;
+    private static final int PERIOD_MONTH = PeriodStats.PERIOD_MONTH;
+    private static final int PERIOD_YEAR = PeriodStats.PERIOD_YEAR;
+    private static final int PERIOD_ALL = PeriodStats.PERIOD_ALL;
+    private static final int PERIOD_ALL_BY_MONTH = PeriodStats.PERIOD_ALL_BY_MONTH;
+    private static final int PERIOD_ALL_BY_YEAR = PeriodStats.PERIOD_ALL_BY_YEAR;
 
-    // Périodes pour les onglets
-    private static final int PERIOD_WEEK = 0;
-    private static final int PERIOD_MONTH = 1;
-    private static final int PERIOD_YEAR = 2;
-    private static final int PERIOD_ALL = 3;
+    private static final String STATE_PERIOD = "period";
+    private static final String STATE_PERIOD_OFFSET = "periodOffset";
 
     private int currentPeriod = PERIOD_WEEK;
     private int periodOffset = 0; // 0 = période courante, -1 = précédente, etc.
+    // Période des graphiques affichés (peut différer de currentPeriod pendant un calcul)
+    private int displayedPeriod = PERIOD_WEEK;
+
+    // Calculs en arrière-plan : seule la dernière demande est affichée
+    private StatsWorker statsWorker;
+    private final StatsWorker.Callback statsCallback = new StatsWorker.Callback() {
+        @Override
+        public void onStatsReady(PeriodStats stats) {
+            if (!isDestroyed()) {
+                showStats(stats);
+            }
+        }
+    };
+
+    // Réduction des points affichés : budget proportionnel à la largeur en pixels
+    private static final int LINE_PIXELS_PER_POINT = 3;
+    private static final int BAR_PIXELS_PER_BAR = 6;
+    private static final int DEFAULT_CHART_WIDTH_PX = 1080;
+    private static final int MIN_POINT_BUDGET = 32;
+    private static final int MIN_SEGMENT_POINTS = 3;
+    private static final float BAR_WIDTH_RATIO = 0.85f;
+
+    // Série affichée (x = indice dans cette série) et datasets rééchantillonnés au zoom
+    private DaySeries chartData = new DayHistory();
+    private LineDataSet lineDataSet;
+    private BarDataSet barDataSet;
+    private int barBucketSize = 1;
+
+    // Étiquette de l'axe X calculée pour les seuls repères affichés
+    private final ValueFormatter chartLabelFormatter = new ValueFormatter() {
+        @Override
+        public String getFormattedValue(float value) {
+            int index = Math.round(value);
+            if (index < 0 || index >= chartData.size()) {
+                return "";
+            }
+            return formatChartLabel(chartData.dayAt(index));
+        }
+    };
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -73,6 +118,7 @@ public class StatsActivity extends AppCompatActivity {
         // Initialisation des vues
         textViewPeriodTotal = findViewById(R.id.textViewPeriodTotal);
         textViewPeriodAverage = findViewById(R.id.textViewPeriodAverage);
+        textViewScoreDistribution = findViewById(R.id.textViewScoreDistribution);
         textViewCurrentPeriod = findViewById(R.id.textViewCurrentPeriod);
         lineChart = findViewById(R.id.lineChart);
         barChart = findViewById(R.id.barChart);
@@ -86,9 +132,11 @@ public class StatsActivity extends AppCompatActivity {
         tabLayout.addTab(tabLayout.newTab().setText("Mois"));
         tabLayout.addTab(tabLayout.newTab().setText("Année"));
         tabLayout.addTab(tabLayout.newTab().setText("Tout"));
+        tabLayout.addTab(tabLayout.newTab().setText("Par mois"));
+        tabLayout.addTab(tabLayout.newTab().setText("Par année"));
 
-        // Charger les données de l'historique
-        loadArrowHistory();
+        loadHistory();
+        loadScoreLog();
 
         // Ajouter les écouteurs d'événements
         buttonBack.setOnClickListener(new View.OnClickListener() {
@@ -134,100 +182,123 @@ public class StatsActivity extends AppCompatActivity {
             }
         });
 
+        // Affiner les graphiques après un zoom ou un déplacement
+        attachRefinement(lineChart, new Runnable() {
+            @Override
+            public void run() {
+                refineLineChart();
+            }
+        });
+        attachRefinement(barChart, new Runnable() {
+            @Override
+            public void run() {
+                refineBarChart();
+            }
+        });
+
+        // Après une rotation : même onglet et même période, lus dans le cache partagé
+        if (savedInstanceState != null) {
+            int savedPeriod = savedInstanceState.getInt(STATE_PERIOD, PERIOD_WEEK);
+            if (savedPeriod != PERIOD_WEEK) {
+                tabLayout.getTabAt(savedPeriod).select(); // remet l'offset à 0
+            }
+            periodOffset = savedInstanceState.getInt(STATE_PERIOD_OFFSET, 0);
+        }
+
         // Mettre à jour les graphiques avec la période initiale
         updateChartsAndStats();
     }
 
-    private void loadArrowHistory() {
-        SharedPreferences prefs = getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
-        Map<String, ?> allPrefs = prefs.getAll();
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt(STATE_PERIOD, currentPeriod);
+        outState.putInt(STATE_PERIOD_OFFSET, periodOffset);
+    }
 
-        // Charger l'historique des flèches
-        for (Map.Entry<String, ?> entry : allPrefs.entrySet()) {
-            if (entry.getKey().startsWith(KEY_ARROW_HISTORY_PREFIX)) {
-                String date = entry.getKey().substring(KEY_ARROW_HISTORY_PREFIX.length());
-                Integer count = (Integer) entry.getValue();
-                arrowHistory.put(date, count);
-            }
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        if (historyRepository != null) {
+            historyRepository.removeListener(historyListener);
+            statsWorker.shutdown();
         }
-
-        // Ajouter le jour actuel qu'il y ait des flèches ou non
-        String currentDate = prefs.getString(KEY_CURRENT_DATE, getCurrentDateString());
-        int currentSum = prefs.getInt(KEY_CURRENT_SUM, 0);
-
-        // Toujours inclure le jour actuel pour les stats complètes
-        arrowHistory.put(currentDate, currentSum);
     }
 
-    private String getCurrentDateString() {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        return sdf.format(new Date());
+    // L'historique n'est lu dans la base qu'à sa première utilisation dans le processus
+    // (écran restauré directement sur les statistiques) : jamais sur le thread principal
+    private void loadHistory() {
+        IoScheduler.getInstance().execute(new Runnable() {
+            @Override
+            public void run() {
+                // L'historique partagé contient déjà le compte du jour en direct
+                final HistoryRepository repository = HistoryRepository.getInstance(StatsActivity.this);
+                final PeriodStatsCache cache = PeriodStatsCache.getInstance(StatsActivity.this);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (isDestroyed()) {
+                            return;
+                        }
+                        historyRepository = repository;
+                        statsWorker = new StatsWorker(cache);
+                        historyRepository.addListener(historyListener);
+                        updateChartsAndStats();
+                    }
+                });
+            }
+        });
     }
 
     private void updateChartsAndStats() {
-        // Filtrer les données selon la période sélectionnée
-        Map<String, Integer> filteredData = filterDataByPeriod(currentPeriod);
-        
         // Mettre à jour l'affichage de la période courante
         updateCurrentPeriodDisplay();
         
         // Mettre à jour les boutons de navigation
         updateNavigationButtons();
+
+        if (historyRepository == null) {
+            // Graphiques calculés dès que l'historique est chargé
+            return;
+        }
+        // Lecture sans verrou de l'état courant de l'historique
+        HistorySnapshot snapshot = historyRepository.getSnapshot();
         
-        // Mettre à jour les statistiques textuelles
-        updateStats(filteredData);
-        
-        // Mettre à jour les graphiques
-        updateLineChart(filteredData);
-        updateBarChart(filteredData);
+        // Filtrage, statistiques et séries calculés hors du thread principal
+        statsWorker.request(snapshot, currentPeriod, periodOffset, statsCallback);
     }
 
     private void updateCurrentPeriodDisplay() {
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy", Locale.getDefault());
-        Calendar calendar = Calendar.getInstance();
+        int today = DateCodec.today();
         
         String periodDescription = "";
         
         switch (currentPeriod) {
             case PERIOD_WEEK:
                 // Calculer la semaine affichée
-                int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-                int daysFromMonday = (dayOfWeek == Calendar.SUNDAY) ? 6 : dayOfWeek - Calendar.MONDAY;
-                calendar.add(Calendar.DAY_OF_YEAR, -daysFromMonday);
-                calendar.add(Calendar.WEEK_OF_YEAR, periodOffset);
-                
-                Date startWeek = calendar.getTime();
-                calendar.add(Calendar.DAY_OF_YEAR, 6);
-                Date endWeek = calendar.getTime();
+                int startWeek = DateCodec.startOfWeek(today) + 7 * periodOffset;
                 
                 if (periodOffset == 0) {
                     periodDescription = "Semaine courante";
                 } else if (periodOffset == -1) {
                     periodDescription = "Semaine précédente";
                 } else {
-                    periodDescription = "Semaine du " + sdf.format(startWeek);
+                    periodDescription = "Semaine du " + DateCodec.formatDisplay(startWeek);
                 }
                 break;
                 
             case PERIOD_MONTH:
-                calendar.set(Calendar.DAY_OF_MONTH, 1);
-                calendar.add(Calendar.MONTH, periodOffset);
-                
-                SimpleDateFormat monthFormat = new SimpleDateFormat("MMMM yyyy", Locale.getDefault());
                 if (periodOffset == 0) {
                     periodDescription = "Mois courant";
                 } else if (periodOffset == -1) {
                     periodDescription = "Mois précédent";
                 } else {
-                    periodDescription = monthFormat.format(calendar.getTime());
+                    periodDescription = DateCodec.formatMonthYear(DateCodec.addMonths(today, periodOffset));
                 }
                 break;
                 
             case PERIOD_YEAR:
-                calendar.set(Calendar.DAY_OF_YEAR, 1);
-                calendar.add(Calendar.YEAR, periodOffset);
-                
-                int year = calendar.get(Calendar.YEAR);
+                int year = DateCodec.yearOf(today) + periodOffset;
                 if (periodOffset == 0) {
                     periodDescription = "Année courante";
                 } else if (periodOffset == -1) {
@@ -240,6 +311,14 @@ public class StatsActivity extends AppCompatActivity {
             case PERIOD_ALL:
                 periodDescription = "Toutes les données";
                 break;
+                
+            case PERIOD_ALL_BY_MONTH:
+                periodDescription = "Toutes les données, par mois";
+                break;
+                
+            case PERIOD_ALL_BY_YEAR:
+                periodDescription = "Toutes les données, par année";
+                break;
         }
         
         textViewCurrentPeriod.setText(periodDescription);
@@ -250,10 +329,10 @@ public class StatsActivity extends AppCompatActivity {
         buttonNext.setEnabled(periodOffset < 0);
         
         // Le bouton "Précédent" est toujours activé sauf pour "Tout"
-        buttonPrevious.setEnabled(currentPeriod != PERIOD_ALL);
+        buttonPrevious.setEnabled(!PeriodStats.isAllTimePeriod(currentPeriod));
         
         // Masquer les boutons pour "Tout"
-        if (currentPeriod == PERIOD_ALL) {
+        if (PeriodStats.isAllTimePeriod(currentPeriod)) {
             buttonPrevious.setVisibility(View.GONE);
             buttonNext.setVisibility(View.GONE);
         } else {
@@ -262,214 +341,279 @@ public class StatsActivity extends AppCompatActivity {
         }
     }
 
-    private Map<String, Integer> filterDataByPeriod(int period) {
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        Calendar calendar = Calendar.getInstance();
-        
-        Date startDate;
-        Date endDate;
+    // Affichage d'un résultat calculé par le StatsWorker (thread principal)
+    private void showStats(PeriodStats stats) {
+        displayedPeriod = stats.getPeriod();
+        displayedStats = stats;
 
-        switch (period) {
-            case PERIOD_WEEK:
-                // Aller au lundi de la semaine (courante + offset)
-                int dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
-                int daysFromMonday = (dayOfWeek == Calendar.SUNDAY) ? 6 : dayOfWeek - Calendar.MONDAY;
-                calendar.add(Calendar.DAY_OF_YEAR, -daysFromMonday);
-                // Appliquer l'offset (en semaines)
-                calendar.add(Calendar.WEEK_OF_YEAR, periodOffset);
-                startDate = calendar.getTime();
-                
-                // Aller au dimanche de cette semaine
-                calendar.add(Calendar.DAY_OF_YEAR, 6);
-                endDate = calendar.getTime();
-                break;
-                
-            case PERIOD_MONTH:
-                // Aller au 1er du mois (courant + offset)
-                calendar.set(Calendar.DAY_OF_MONTH, 1);
-                // Appliquer l'offset (en mois)
-                calendar.add(Calendar.MONTH, periodOffset);
-                startDate = calendar.getTime();
-                
-                // Aller au dernier jour de ce mois
-                calendar.set(Calendar.DAY_OF_MONTH, calendar.getActualMaximum(Calendar.DAY_OF_MONTH));
-                endDate = calendar.getTime();
-                break;
-                
-            case PERIOD_YEAR:
-                // Aller au 1er janvier (année courante + offset)
-                calendar.set(Calendar.DAY_OF_YEAR, 1);
-                // Appliquer l'offset (en années)
-                calendar.add(Calendar.YEAR, periodOffset);
-                startDate = calendar.getTime();
-                
-                // Aller au dernier jour de cette année
-                calendar.set(Calendar.DAY_OF_YEAR, calendar.getActualMaximum(Calendar.DAY_OF_YEAR));
-                endDate = calendar.getTime();
-                break;
-                
-            default:
-                // Toutes les données
-                return new TreeMap<>(arrowHistory);
-        }
-
-        Map<String, Integer> filteredData = new TreeMap<>();
-        
-        // Créer une plage complète de dates pour la période
-        Calendar dateIterator = Calendar.getInstance();
-        dateIterator.setTime(startDate);
-        Calendar endCalendar = Calendar.getInstance();
-        endCalendar.setTime(endDate);
-        
-        while (!dateIterator.after(endCalendar)) {
-            String dateString = sdf.format(dateIterator.getTime());
-            // Utiliser les données existantes ou 0 si aucune donnée pour ce jour
-            int arrowCount = arrowHistory.getOrDefault(dateString, 0);
-            filteredData.put(dateString, arrowCount);
-            dateIterator.add(Calendar.DAY_OF_YEAR, 1);
-        }
+        // Mettre à jour les statistiques textuelles
+        updateStats(stats);
+        updateScoreDistribution();
 
-        return filteredData;
+        // Mettre à jour les graphiques
+        chartData = stats.getSeries();
+        updateLineChart(chartData);
+        updateBarChart(chartData);
     }
 
-    private void updateStats(Map<String, Integer> filteredData) {
-        int total = 0;
-        for (int value : filteredData.values()) {
-            total += value;
-        }
-        
-        // Calculer la moyenne quotidienne sur tous les jours de la période (y compris les jours à 0)
-        int numberOfDays = filteredData.size();
-        float average = numberOfDays > 0 ? (float) total / numberOfDays : 0;
-        
-        // Calculer quelques statistiques supplémentaires
-        int daysWithArrows = 0;
-        int maxArrows = 0;
-        for (int value : filteredData.values()) {
-            if (value > 0) {
-                daysWithArrows++;
-            }
-            if (value > maxArrows) {
-                maxArrows = value;
-            }
-        }
-        
+    private void updateStats(PeriodStats stats) {
         // Mettre à jour les vues
-        textViewPeriodTotal.setText("Total de la période : " + total + " flèches");
+        textViewPeriodTotal.setText("Total de la période : " + stats.getTotal() + " flèches");
         String avgText = String.format(Locale.getDefault(), "Moyenne quotidienne : %.1f flèches/jour\n" +
                 "Jours avec flèches : %d/%d\n" +
                 "Maximum en un jour : %d flèches", 
-                average, daysWithArrows, numberOfDays, maxArrows);
+                stats.getAverage(), stats.getDaysWithArrows(), stats.getNumberOfDays(), stats.getMaxArrows());
         textViewPeriodAverage.setText(avgText);
     }
 
-    private void updateLineChart(Map<String, Integer> filteredData) {
-        List<Entry> entries = new ArrayList<>();
-        final List<String> labels = new ArrayList<>();
-        
-        // Convertir les dates en un format court pour l'affichage
-        SimpleDateFormat displayFormat = new SimpleDateFormat("dd/MM", Locale.getDefault());
-        SimpleDateFormat parseFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        
-        int i = 0;
-        for (Map.Entry<String, Integer> entry : filteredData.entrySet()) {
-            entries.add(new Entry(i, entry.getValue()));
-            
-            // Formater la date pour l'affichage
-            try {
-                Date date = parseFormat.parse(entry.getKey());
-                if (date != null) {
-                    labels.add(displayFormat.format(date));
-                } else {
-                    labels.add(entry.getKey());
-                }
-            } catch (ParseException e) {
-                labels.add(entry.getKey());
+    private void loadScoreLog() {
+        IoScheduler.getInstance().execute(new Runnable() {
+            @Override
+            public void run() {
+                final ScoreLog log = ScoreLog.getInstance(StatsActivity.this);
+                runOnUiThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        scoreLog = log;
+                        updateScoreDistribution();
+                    }
+                });
             }
-            
-            i++;
+        });
+    }
+
+    // Répartition des scores de la période affichée, lue dans les cumuls du journal
+    private void updateScoreDistribution() {
+        if (scoreLog == null || displayedStats == null) {
+            return;
         }
+        ScoreHistogram histogram = scoreLog.histogram(displayedStats.getStartDay(), displayedStats.getEndDay());
+        if (histogram.isEmpty()) {
+            textViewScoreDistribution.setVisibility(View.GONE);
+            return;
+        }
+        textViewScoreDistribution.setText(String.format(Locale.getDefault(),
+                "Scores : %d flèches, moyenne %.2f\n" +
+                "Médiane : %s (10 %% : %s, 90 %% : %s)\n%s",
+                histogram.getTotal(), histogram.getAverage(),
+                ScoreCodes.labelOf(histogram.percentile(0.5)),
+                ScoreCodes.labelOf(histogram.percentile(0.1)),
+                ScoreCodes.labelOf(histogram.percentile(0.9)),
+                histogram.describeCounts()));
+        textViewScoreDistribution.setVisibility(View.VISIBLE);
+    }
+
+    private String formatChartLabel(int day) {
+        if (displayedPeriod == PERIOD_ALL_BY_MONTH) {
+            return DateCodec.formatDisplay(day).substring(3); // MM/yyyy
+        }
+        if (displayedPeriod == PERIOD_ALL_BY_YEAR) {
+            return String.valueOf(DateCodec.yearOf(day));
+        }
+        return DateCodec.formatShort(day);
+    }
+
+    private void updateLineChart(DaySeries filteredData) {
+        // Points réduits au budget du graphique (LTTB), étiquettes calculées à la demande
+        List<Entry> entries = buildLineEntries(0, filteredData.size());
+        boolean allPoints = entries.size() == filteredData.size();
 
         // Configurer le dataset et le graphique
-        LineDataSet dataSet = new LineDataSet(entries, "Flèches tirées");
-        dataSet.setColor(Color.BLUE);
-        dataSet.setCircleColor(Color.BLUE);
-        dataSet.setLineWidth(2f);
-        dataSet.setCircleRadius(4f);
-        dataSet.setDrawValues(true);
-        
-        LineData lineData = new LineData(dataSet);
-        
+        lineDataSet = new LineDataSet(entries, "Flèches tirées");
+        lineDataSet.setColor(Color.BLUE);
+        lineDataSet.setCircleColor(Color.BLUE);
+        lineDataSet.setLineWidth(2f);
+        lineDataSet.setCircleRadius(4f);
+        // Valeurs et cercles illisibles sur une courbe réduite
+        lineDataSet.setDrawValues(allPoints);
+        lineDataSet.setDrawCircles(allPoints);
+
+        LineData lineData = new LineData(lineDataSet);
+
         // Configurer les axes
         XAxis xAxis = lineChart.getXAxis();
         xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-        xAxis.setValueFormatter(new IndexAxisValueFormatter(labels));
+        xAxis.setValueFormatter(chartLabelFormatter);
         xAxis.setGranularity(1f);
         xAxis.setLabelRotationAngle(45f);
-        
+
         // Configurer l'axe Y pour commencer à 0
         YAxis leftAxis = lineChart.getAxisLeft();
         leftAxis.setAxisMinimum(0f);
         leftAxis.setGranularity(1f);
-        
+
         YAxis rightAxis = lineChart.getAxisRight();
         rightAxis.setEnabled(false); // Désactiver l'axe de droite
-        
+
         lineChart.getDescription().setEnabled(false);
         lineChart.setData(lineData);
         lineChart.invalidate();
     }
 
-    private void updateBarChart(Map<String, Integer> filteredData) {
-        List<BarEntry> entries = new ArrayList<>();
-        final List<String> labels = new ArrayList<>();
-        
-        // Convertir les dates en un format court pour l'affichage
-        SimpleDateFormat displayFormat = new SimpleDateFormat("dd/MM", Locale.getDefault());
-        SimpleDateFormat parseFormat = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        
-        int i = 0;
-        for (Map.Entry<String, Integer> entry : filteredData.entrySet()) {
-            entries.add(new BarEntry(i, entry.getValue()));
-            
-            // Formater la date pour l'affichage
-            try {
-                Date date = parseFormat.parse(entry.getKey());
-                if (date != null) {
-                    labels.add(displayFormat.format(date));
-                } else {
-                    labels.add(entry.getKey());
-                }
-            } catch (ParseException e) {
-                labels.add(entry.getKey());
-            }
-            
-            i++;
-        }
+    private void updateBarChart(DaySeries filteredData) {
+        // Barres regroupées par seaux de jours (maximum du seau) selon la largeur du graphique
+        List<BarEntry> entries = buildBarEntries(0, filteredData.size());
 
         // Configurer le dataset et le graphique
-        BarDataSet dataSet = new BarDataSet(entries, "Flèches tirées");
-        dataSet.setColor(Color.GREEN);
-        
-        BarData barData = new BarData(dataSet);
-        
+        barDataSet = new BarDataSet(entries, "Flèches tirées");
+        barDataSet.setColor(Color.GREEN);
+        barDataSet.setDrawValues(barBucketSize == 1);
+
+        BarData barData = new BarData(barDataSet);
+        barData.setBarWidth(BAR_WIDTH_RATIO * barBucketSize);
+
         // Configurer les axes
         XAxis xAxis = barChart.getXAxis();
         xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-        xAxis.setValueFormatter(new IndexAxisValueFormatter(labels));
+        xAxis.setValueFormatter(chartLabelFormatter);
         xAxis.setGranularity(1f);
         xAxis.setLabelRotationAngle(45f);
-        
+
         // Configurer l'axe Y pour commencer à 0
         YAxis leftAxis = barChart.getAxisLeft();
         leftAxis.setAxisMinimum(0f);
         leftAxis.setGranularity(1f);
-        
+
         YAxis rightAxis = barChart.getAxisRight();
         rightAxis.setEnabled(false); // Désactiver l'axe de droite
-        
+
         barChart.getDescription().setEnabled(false);
         barChart.setData(barData);
         barChart.invalidate();
     }
+
+    // Budget de points : un point toutes les quelques colonnes de pixels
+    private static int pointBudget(View chart, int pixelsPerPoint) {
+        int width = chart.getWidth() > 0 ? chart.getWidth() : DEFAULT_CHART_WIDTH_PX;
+        return Math.max(MIN_POINT_BUDGET, width / pixelsPerPoint);
+    }
+
+    // Partie visible [from, to) en pleine résolution, le reste à la densité de la vue d'ensemble
+    private List<Entry> buildLineEntries(int visibleFrom, int visibleTo) {
+        int size = chartData.size();
+        int budget = pointBudget(lineChart, LINE_PIXELS_PER_POINT);
+        List<Entry> entries = new ArrayList<>(Math.min(size, 3 * budget));
+        addLineSegment(entries, 0, visibleFrom, outsideBudget(budget, visibleFrom, size));
+        addLineSegment(entries, visibleFrom, visibleTo, budget);
+        addLineSegment(entries, visibleTo, size, outsideBudget(budget, size - visibleTo, size));
+        return entries;
+    }
+
+    private void addLineSegment(List<Entry> entries, int from, int to, int budget) {
+        int[] indices = Downsampler.lttb(chartData, from, to, budget);
+        for (int index : indices) {
+            entries.add(new Entry(index, chartData.countAt(index)));
+        }
+    }
+
+    private List<BarEntry> buildBarEntries(int visibleFrom, int visibleTo) {
+        int size = chartData.size();
+        int budget = pointBudget(barChart, BAR_PIXELS_PER_BAR);
+        barBucketSize = Downsampler.bucketSize(visibleTo - visibleFrom, budget);
+        // Hors de l'écran : seaux au moins aussi larges, les barres ne se chevauchent pas
+        int outsideBucketSize = Math.max(barBucketSize, Downsampler.bucketSize(size, budget));
+        List<BarEntry> entries = new ArrayList<>();
+        addBarSegment(entries, 0, visibleFrom, outsideBucketSize);
+        addBarSegment(entries, visibleFrom, visibleTo, barBucketSize);
+        addBarSegment(entries, visibleTo, size, outsideBucketSize);
+        return entries;
+    }
+
+    // Une barre par seau, centrée sur les jours qu'elle couvre
+    private void addBarSegment(List<BarEntry> entries, int from, int to, int bucketSize) {
+        for (int start = from; start < to; start += bucketSize) {
+            int end = Math.min(start + bucketSize, to);
+            float x = bucketSize == 1 ? start : (start + end - 1) / 2f;
+            entries.add(new BarEntry(x, Downsampler.maxCount(chartData, start, end)));
+        }
+    }
+
+    private static int outsideBudget(int budget, int length, int size) {
+        return size == 0 ? 0 : Math.max(MIN_SEGMENT_POINTS, (int) ((long) budget * length / size));
+    }
+
+    // Après un zoom ou un déplacement : rééchantillonner la partie visible, sans toucher au cadrage
+    private void refineLineChart() {
+        if (lineDataSet == null) {
+            return;
+        }
+        lineDataSet.setValues(buildLineEntries(visibleFrom(lineChart), visibleTo(lineChart)));
+        lineChart.getData().notifyDataChanged();
+        lineChart.notifyDataSetChanged();
+        lineChart.invalidate();
+    }
+
+    private void refineBarChart() {
+        if (barDataSet == null) {
+            return;
+        }
+        barDataSet.setValues(buildBarEntries(visibleFrom(barChart), visibleTo(barChart)));
+        barDataSet.setDrawValues(barBucketSize == 1);
+        barChart.getData().setBarWidth(BAR_WIDTH_RATIO * barBucketSize);
+        barChart.getData().notifyDataChanged();
+        barChart.notifyDataSetChanged();
+        barChart.invalidate();
+    }
+
+    private int visibleFrom(BarLineChartBase<?> chart) {
+        return Math.max(0, Math.min(chartData.size(), (int) Math.floor(chart.getLowestVisibleX())));
+    }
+
+    private int visibleTo(BarLineChartBase<?> chart) {
+        return Math.max(0, Math.min(chartData.size(), (int) Math.ceil(chart.getHighestVisibleX()) + 1));
+    }
+
+    private void attachRefinement(final BarLineChartBase<?> chart, final Runnable refine) {
+        chart.setOnChartGestureListener(new OnChartGestureListener() {
+            @Override
+            public void onChartGestureStart(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+            }
+
+            @Override
+            public void onChartGestureEnd(MotionEvent me, ChartTouchListener.ChartGesture lastPerformedGesture) {
+                // Une seule passe par geste, une fois le zoom ou le déplacement terminé
+                if (lastPerformedGesture == ChartTouchListener.ChartGesture.PINCH_ZOOM
+                        || lastPerformedGesture == ChartTouchListener.ChartGesture.X_ZOOM
+                        || lastPerformedGesture == ChartTouchListener.ChartGesture.DRAG
+                        || lastPerformedGesture == ChartTouchListener.ChartGesture.DOUBLE_TAP) {
+                    refine.run();
+                }
+            }
+
+            @Override
+            public void onChartLongPressed(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartDoubleTapped(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartSingleTapped(MotionEvent me) {
+            }
+
+            @Override
+            public void onChartFling(MotionEvent me1, MotionEvent me2, float velocityX, float velocityY) {
+            }
+
+            @Override
+            public void onChartScale(MotionEvent me, float scaleX, float scaleY) {
+            }
+
+            @Override
+            public void onChartTranslate(MotionEvent me, float dX, float dY) {
+            }
+        });
+
+        // Le budget dépend de la largeur : recalculer quand elle change (premier affichage, rotation)
+        chart.addOnLayoutChangeListener(new View.OnLayoutChangeListener() {
+            @Override
+            public void onLayoutChange(View v, int left, int top, int right, int bottom,
+                                       int oldLeft, int oldTop, int oldRight, int oldBottom) {
+                if (right - left != oldRight - oldLeft) {
+                    refine.run();
+                }
+            }
+        });
+    }
 } 
\ No newline at end of file
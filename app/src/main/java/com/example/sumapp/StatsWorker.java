@@ -0,0 +1,153 @@
+package com.example.sumapp;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Calcul des statistiques de l'écran de stats sur un thread dédié : chaque
+// nouvelle demande annule la précédente, seul le dernier résultat est publié.
+// Une fois l'utilisateur inactif, les périodes voisines (offset ± 1) sont
+// calculées à l'avance ; tous les résultats passent par le cache partagé,
+// une période déjà calculée est affichée sans attendre le thread
+public class StatsWorker {
+
+    public interface Callback {
+        void onStatsReady(PeriodStats stats);
+    }
+
+    // Attente après la publication avant de précalculer les voisines
+    private static final long PREFETCH_DELAY_MS = 250;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger generation = new AtomicInteger();
+    // Tâches de la demande en cours (calcul puis précalculs), annulées par la suivante
+    private final List<Future<?>> pending = new ArrayList<>();
+    private final PeriodStatsCache cache;
+
+    public StatsWorker(PeriodStatsCache cache) {
+        this.cache = cache;
+        executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SumAppStats");
+                thread.setPriority(Thread.NORM_PRIORITY - 1);
+                return thread;
+            }
+        });
+        executor.setRemoveOnCancelPolicy(true);
+    }
+
+    // À appeler depuis le thread principal ; le callback y est aussi appelé
+    public void request(final HistorySnapshot snapshot, final int period, final int offset,
+                        final Callback callback) {
+        final int requestId = generation.incrementAndGet();
+        final int today = DateCodec.today();
+        cancelPending();
+
+        // Période déjà calculée pour cette version : affichage immédiat
+        PeriodStats cached = cache.get(period, offset, today, snapshot.getVersion());
+        if (cached != null) {
+            callback.onStatsReady(cached);
+            schedulePrefetches(requestId, snapshot, period, offset, today);
+            return;
+        }
+
+        submit(new Runnable() {
+            @Override
+            public void run() {
+                PeriodStats stats = obtain(snapshot, period, offset, today);
+                if (stats == null || requestId != generation.get()) {
+                    return; // Annulé ou remplacé par une demande plus récente
+                }
+                publish(requestId, stats, callback);
+                schedulePrefetches(requestId, snapshot, period, offset, today);
+            }
+        }, 0);
+    }
+
+    public void shutdown() {
+        generation.incrementAndGet();
+        executor.shutdownNow();
+    }
+
+    private void publish(final int requestId, final PeriodStats stats, final Callback callback) {
+        mainHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (requestId == generation.get()) {
+                    callback.onStatsReady(stats);
+                }
+            }
+        });
+    }
+
+    private void schedulePrefetches(int requestId, HistorySnapshot snapshot, int period, int offset, int today) {
+        if (PeriodStats.isAllTimePeriod(period)) {
+            return;
+        }
+        schedulePrefetch(requestId, snapshot, period, offset - 1, today);
+        if (offset < 0) { // Pas de période future
+            schedulePrefetch(requestId, snapshot, period, offset + 1, today);
+        }
+    }
+
+    private void schedulePrefetch(final int requestId, final HistorySnapshot snapshot,
+                                  final int period, final int offset, final int today) {
+        submit(new Runnable() {
+            @Override
+            public void run() {
+                if (requestId == generation.get()) {
+                    obtain(snapshot, period, offset, today);
+                }
+            }
+        }, PREFETCH_DELAY_MS);
+    }
+
+    // Résultat en cache s'il est encore valable, sinon calcul (null si interrompu)
+    private PeriodStats obtain(HistorySnapshot snapshot, int period, int offset, int today) {
+        PeriodStats stats = cache.get(period, offset, today, snapshot.getVersion());
+        if (stats == null) {
+            stats = PeriodStats.compute(snapshot, period, offset, today);
+            if (stats != null) {
+                cache.put(stats);
+            }
+        }
+        return stats;
+    }
+
+    private void submit(final Runnable task, long delayMs) {
+        synchronized (pending) {
+            if (executor.isShutdown()) {
+                return;
+            }
+            pending.add(executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    // Une tâche en échec ne doit pas arrêter le thread de calcul
+                    try {
+                        task.run();
+                    } catch (RuntimeException e) {
+                        e.printStackTrace();
+                    }
+                }
+            }, delayMs, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void cancelPending() {
+        synchronized (pending) {
+            for (Future<?> future : pending) {
+                future.cancel(true);
+            }
+            pending.clear();
+        }
+    }
+}
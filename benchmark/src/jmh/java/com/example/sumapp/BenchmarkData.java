@@ -0,0 +1,73 @@
+package com.example.sumapp;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+// Jeux de données synthétiques, identiques d'une exécution à l'autre (graine fixe) :
+// un archer sur 10 ans et un club de 200 archers sur 5 ans
+final class BenchmarkData {
+
+    static final String DATASET_ARCHER = "archer10y";
+    static final String DATASET_CLUB = "club200x5y";
+
+    static final int CLUB_SIZE = 200;
+    // Dernier jour des données, fixe pour que les résultats restent comparables
+    static final int LAST_DAY = DateCodec.toEpochDay(2024, 12, 31);
+
+    private static final long SEED = 0x5EED5L;
+
+    private BenchmarkData() {
+    }
+
+    // Une à deux séances par semaine de plus le week-end, 30 à 180 flèches
+    static DayHistory archerHistory(Random random, int years) {
+        int firstDay = DateCodec.addYears(LAST_DAY, -years) + 1;
+        DayHistory history = new DayHistory(years * 200);
+        for (int day = firstDay; day <= LAST_DAY; day++) {
+            boolean weekend = DateCodec.dayOfWeek(day) >= 5;
+            if (random.nextInt(100) < (weekend ? 70 : 35)) {
+                history.append(day, 30 + random.nextInt(151));
+            }
+        }
+        return history;
+    }
+
+    static DayHistory[] histories(String dataset) {
+        Random random = new Random(SEED);
+        if (DATASET_ARCHER.equals(dataset)) {
+            return new DayHistory[]{archerHistory(random, 10)};
+        }
+        DayHistory[] club = new DayHistory[CLUB_SIZE];
+        for (int i = 0; i < club.length; i++) {
+            club[i] = archerHistory(random, 5);
+        }
+        return club;
+    }
+
+    static HistorySnapshot[] snapshots(String dataset) {
+        DayHistory[] histories = histories(dataset);
+        HistorySnapshot[] snapshots = new HistorySnapshot[histories.length];
+        for (int i = 0; i < histories.length; i++) {
+            snapshots[i] = HistorySnapshot.of(histories[i]);
+        }
+        return snapshots;
+    }
+
+    // Export CSV tel que produit par l'application
+    static byte[] csvOf(DayHistory history) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(history.size() * 16 + 32);
+        CsvEncoder encoder = new CsvEncoder();
+        encoder.reset(out);
+        try {
+            encoder.writeHeader("Date,Flèches tirées");
+            for (int i = 0; i < history.size(); i++) {
+                encoder.writeRow(history.dayAt(i), history.countAt(i));
+            }
+            encoder.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.sumapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+// Import et export CSV : lecture d'un ou de plusieurs exports avec fusion
+// à k voies des fichiers, et écriture de l'export
+@State(Scope.Thread)
+public class CsvBenchmark {
+
+    @Param({BenchmarkData.DATASET_ARCHER, BenchmarkData.DATASET_CLUB})
+    public String dataset;
+
+    private DayHistory[] histories;
+    private byte[][] files;
+    private final CsvEncoder encoder = new CsvEncoder();
+
+    // Flux de sortie qui ne garde rien : seul le coût de l'encodage est mesuré
+    private static final OutputStream NULL_OUTPUT = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+
+    @Setup
+    public void setUp() {
+        histories = BenchmarkData.histories(dataset);
+        files = new byte[histories.length][];
+        for (int i = 0; i < histories.length; i++) {
+            files[i] = BenchmarkData.csvOf(histories[i]);
+        }
+    }
+
+    // Lecture de tous les fichiers puis fusion en un seul historique
+    @Benchmark
+    public DayHistory importFiles() throws IOException {
+        DayHistory[] results = new DayHistory[files.length];
+        for (int i = 0; i < files.length; i++) {
+            results[i] = new CsvImporter(null).importData(new ByteArrayInputStream(files[i]), files[i].length);
+        }
+        return files.length == 1 ? results[0] : HistoryMerge.mergeAll(results);
+    }
+
+    @Benchmark
+    public void exportAll() throws IOException {
+        for (DayHistory history : histories) {
+            encoder.reset(NULL_OUTPUT);
+            encoder.writeHeader("Date,Flèches tirées");
+            for (int i = 0; i < history.size(); i++) {
+                encoder.writeRow(history.dayAt(i), history.countAt(i));
+            }
+            encoder.flush();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.sumapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+// Confirmation d'un import : aperçu exact des différences, puis fusion dans
+// l'historique existant (10 ans de chaque côté, jours en partie communs)
+@State(Scope.Thread)
+public class MergeBenchmark {
+
+    @Param({"0", "1", "2", "3"})
+    public int strategy;
+
+    private HistorySnapshot target;
+    private DayHistory incoming;
+
+    @Setup
+    public void setUp() {
+        target = HistorySnapshot.of(BenchmarkData.archerHistory(new Random(1), 10));
+        incoming = BenchmarkData.archerHistory(new Random(2), 10);
+    }
+
+    @Benchmark
+    public HistoryMerge.Preview preview() {
+        return target.previewMerge(incoming, strategy);
+    }
+
+    @Benchmark
+    public HistorySnapshot merge() {
+        return target.withMerged(incoming, strategy, new DayHistory());
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.sumapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Objectifs : flèches tirées depuis le début de l'objectif, pour l'archer actif
+// ou pour tout le club (classements), et totaux de la semaine
+@State(Scope.Thread)
+public class ObjectiveScanBenchmark {
+
+    @Param({BenchmarkData.DATASET_ARCHER, BenchmarkData.DATASET_CLUB})
+    public String dataset;
+
+    private HistorySnapshot[] snapshots;
+    private int start;
+
+    @Setup
+    public void setUp() {
+        snapshots = BenchmarkData.snapshots(dataset);
+    }
+
+    // Progression d'objectifs de durées variées (une semaine à cinq ans)
+    @Benchmark
+    public long objectiveProgress() {
+        start = (start + 37) % (5 * 365);
+        long total = 0;
+        for (HistorySnapshot snapshot : snapshots) {
+            total += snapshot.sumArrows(BenchmarkData.LAST_DAY - 7 - start, BenchmarkData.LAST_DAY - 1);
+        }
+        return total;
+    }
+
+    @Benchmark
+    public long weeklyTotals() {
+        int week = PeriodRollups.keyOf(PeriodRollups.WEEK, BenchmarkData.LAST_DAY);
+        long total = 0;
+        for (HistorySnapshot snapshot : snapshots) {
+            total += snapshot.getRollups().total(PeriodRollups.WEEK, week);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.sumapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Écran des statistiques : calcul d'une période, puis réduction des points
+// de la courbe au budget d'un écran de 1080 px
+@State(Scope.Thread)
+public class PeriodStatsBenchmark {
+
+    private static final int LINE_POINT_BUDGET = 360;
+
+    @Param({BenchmarkData.DATASET_ARCHER, BenchmarkData.DATASET_CLUB})
+    public String dataset;
+
+    @Param({"0", "1", "2", "3", "4", "5"})
+    public int period;
+
+    private HistorySnapshot[] snapshots;
+    private int archer;
+
+    @Setup
+    public void setUp() {
+        snapshots = BenchmarkData.snapshots(dataset);
+    }
+
+    @Benchmark
+    public PeriodStats compute() {
+        return PeriodStats.compute(next(), period, 0, BenchmarkData.LAST_DAY);
+    }
+
+    @Benchmark
+    public int[] computeAndDownsample() {
+        PeriodStats stats = PeriodStats.compute(next(), period, 0, BenchmarkData.LAST_DAY);
+        DaySeries series = stats.getSeries();
+        return Downsampler.lttb(series, 0, series.size(), LINE_POINT_BUDGET);
+    }
+
+    private HistorySnapshot next() {
+        archer = archer + 1 == snapshots.length ? 0 : archer + 1;
+        return snapshots[archer];
+    }
+}
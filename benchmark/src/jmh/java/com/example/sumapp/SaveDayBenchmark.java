@@ -0,0 +1,50 @@
+package com.example.sumapp;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// saveData() : chaque ajout publie un nouvel instantané, qui remplace le
+// précédent comme dans HistoryRepository (le jour en cours ne copie rien,
+// un jour ancien copie l'historique, l'index des sommes et les totaux)
+@State(Scope.Thread)
+public class SaveDayBenchmark {
+
+    @Param({BenchmarkData.DATASET_ARCHER, BenchmarkData.DATASET_CLUB})
+    public String dataset;
+
+    private HistorySnapshot[] snapshots;
+    private int archer;
+    private int count;
+
+    @Setup
+    public void setUp() {
+        snapshots = BenchmarkData.snapshots(dataset);
+    }
+
+    // Ajout de flèches au jour en cours (cas le plus fréquent)
+    @Benchmark
+    public HistorySnapshot updateToday() {
+        return publish(next().withDay(BenchmarkData.LAST_DAY, 1 + (count++ & 0xFF)));
+    }
+
+    // Correction d'un jour ancien : le maximum de la période peut être relu
+    @Benchmark
+    public HistorySnapshot updatePastDay() {
+        HistorySnapshot snapshot = next();
+        return publish(snapshot.withDay(snapshot.firstDay() + (count++ % 365), count & 0x7F));
+    }
+
+    // Les archers du club sont modifiés tour à tour
+    private HistorySnapshot next() {
+        archer = archer + 1 == snapshots.length ? 0 : archer + 1;
+        return snapshots[archer];
+    }
+
+    private HistorySnapshot publish(HistorySnapshot snapshot) {
+        snapshots[archer] = snapshot;
+        return snapshot;
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.sumapp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+// Rapport de club en ligne de commande : les exports CSV d'un dossier (un
+// fichier par archer, .csv ou .csv.gz) sont lus et analysés en parallèle,
+// un fichier par cœur ; chaque archer donne une ligne avec les totaux
+// et moyennes de la semaine, du mois, de l'année et de tout l'historique,
+// suivie d'une ligne pour le club (somme des historiques)
+//   ./gradlew :cli:installDist
+//   cli/build/install/cli/bin/cli <dossier> [--date aaaa-MM-jj] [--objectif semaine|mois|annee:flèches]
+//                                          [--threads n] [--output rapport.csv]
+public class BatchReport {
+
+    private static final String CLUB_NAME = "Club";
+    private static final String GZIP_SUFFIX = ".gz";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Colonnes du rapport, dans l'ordre
+    private static final int[] PERIODS = {
+            PeriodStats.PERIOD_WEEK, PeriodStats.PERIOD_MONTH, PeriodStats.PERIOD_YEAR, PeriodStats.PERIOD_ALL
+    };
+    private static final String[] PERIOD_NAMES = {"Semaine", "Mois", "Année", "Historique"};
+    private static final String[] OBJECTIVE_PERIODS = {"semaine", "mois", "annee"};
+
+    private static final HistoryMerge.ChangeVisitor NO_CHANGE_VISITOR = new HistoryMerge.ChangeVisitor() {
+        @Override
+        public void onChange(int day, boolean existed, int oldCount, int newCount) {
+        }
+    };
+
+    // Résultat d'un fichier (history null et error renseigné s'il est illisible)
+    private static class ArcherReport {
+        final String name;
+        DayHistory history;
+        int importedRows;
+        int skippedRows;
+        String error;
+        // Ligne du rapport, calculée sur le pool avec la lecture
+        String line;
+
+        ArcherReport(String name) {
+            this.name = name;
+        }
+    }
+
+    private final File directory;
+    private final int today;
+    private final int threads;
+    private final Objective objective;
+
+    BatchReport(File directory, int today, int threads, Objective objective) {
+        this.directory = directory;
+        this.today = today;
+        this.threads = threads;
+        this.objective = objective;
+    }
+
+    public static void main(String[] args) {
+        File directory = null;
+        File output = null;
+        int today = DateCodec.today();
+        int threads = Runtime.getRuntime().availableProcessors();
+        String objectiveArgument = null;
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--") && i + 1 == args.length) {
+                usage("Valeur manquante pour " + arg);
+            }
+            if (arg.equals("--date")) {
+                today = DateCodec.parseIso(args[++i]);
+                if (today == DateCodec.INVALID_DAY) {
+                    usage("Date invalide : " + args[i]);
+                }
+            } else if (arg.equals("--threads")) {
+                threads = parsePositive(args[++i]);
+            } else if (arg.equals("--objectif")) {
+                objectiveArgument = args[++i];
+            } else if (arg.equals("--output")) {
+                output = new File(args[++i]);
+            } else if (directory == null && !arg.startsWith("--")) {
+                directory = new File(arg);
+            } else {
+                usage("Argument inconnu : " + arg);
+            }
+        }
+        if (directory == null || !directory.isDirectory()) {
+            usage(directory == null ? "Dossier des exports manquant" : "Dossier introuvable : " + directory);
+        }
+        // L'objectif dépend du jour de référence : lu une fois toutes les options connues
+        Objective objective = objectiveArgument != null ? parseObjective(objectiveArgument, today) : null;
+
+        BatchReport report = new BatchReport(directory, today, threads, objective);
+        try {
+            OutputStream out = output != null ? new FileOutputStream(output) : System.out;
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, Charset.forName("UTF-8")), BUFFER_SIZE);
+            boolean complete;
+            try {
+                complete = report.run(writer);
+            } finally {
+                writer.flush();
+                if (output != null) {
+                    writer.close();
+                }
+            }
+            System.exit(complete ? 0 : 1);
+        } catch (IOException | InterruptedException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // Écrit le rapport ; renvoie false si un fichier n'a pas pu être lu
+    boolean run(Writer writer) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                String lower = name.toLowerCase(Locale.ROOT);
+                return lower.endsWith(".csv") || lower.endsWith(".csv" + GZIP_SUFFIX);
+            }
+        });
+        if (files == null) {
+            throw new IOException("Impossible de lister " + directory);
+        }
+        // Ordre stable du rapport, quel que soit l'ordre de fin des lectures
+        Arrays.sort(files);
+
+        List<ArcherReport> reports = readAll(files);
+
+        boolean complete = true;
+        int rows = 0;
+        int skippedRows = 0;
+        List<DayHistory> histories = new ArrayList<>();
+        writeHeader(writer);
+        for (ArcherReport report : reports) {
+            if (report.error != null) {
+                System.err.println(report.name + " : " + report.error);
+                complete = false;
+            } else {
+                rows += report.importedRows;
+                skippedRows += report.skippedRows;
+                histories.add(report.history);
+                writer.write(report.line);
+            }
+        }
+        writer.write(formatRow(CLUB_NAME, rows, skippedRows, sumAll(histories)));
+
+        System.err.println(String.format(Locale.ROOT, "%d fichiers, %d lignes, %d threads, %d ms",
+                files.length, rows, threads, (System.nanoTime() - start) / 1000000));
+        return complete;
+    }
+
+    // Lecture et analyse de chaque fichier sur le pool, résultats dans l'ordre des fichiers
+    private List<ArcherReport> readAll(File[] files) throws InterruptedException {
+        int poolSize = Math.max(1, Math.min(threads, files.length));
+        final AtomicInteger threadNumber = new AtomicInteger();
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(poolSize, poolSize, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SumAppBatch-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        try {
+            List<Future<ArcherReport>> futures = new ArrayList<>(files.length);
+            for (final File file : files) {
+                futures.add(pool.submit(new Callable<ArcherReport>() {
+                    @Override
+                    public ArcherReport call() {
+                        ArcherReport report = read(file);
+                        if (report.error == null) {
+                            report.line = formatRow(report.name, report.importedRows, report.skippedRows,
+                                    report.history);
+                        }
+                        return report;
+                    }
+                }));
+            }
+            List<ArcherReport> reports = new ArrayList<>(files.length);
+            for (Future<ArcherReport> future : futures) {
+                try {
+                    reports.add(future.get());
+                } catch (ExecutionException e) {
+                    // read() ne lève pas d'exception vérifiée : erreur de programmation
+                    throw new IllegalStateException(e.getCause());
+                }
+            }
+            return reports;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // Thread du pool
+    private static ArcherReport read(File file) {
+        String name = file.getName();
+        boolean gzip = name.toLowerCase(Locale.ROOT).endsWith(GZIP_SUFFIX);
+        // Nom de l'archer : nom du fichier sans extension
+        ArcherReport report = new ArcherReport(name.substring(0, name.length()
+                - (gzip ? ".csv".length() + GZIP_SUFFIX.length() : ".csv".length())));
+        CsvImporter importer = new CsvImporter(null);
+        try {
+            InputStream input = new BufferedInputStream(new FileInputStream(file), BUFFER_SIZE);
+            try {
+                if (gzip) {
+                    input = new GZIPInputStream(input, BUFFER_SIZE);
+                }
+                report.history = importer.importData(input, -1);
+            } finally {
+                input.close();
+            }
+            report.importedRows = importer.getImportedRows();
+            report.skippedRows = importer.getSkippedRows();
+        } catch (IOException e) {
+            report.error = e.getMessage() != null ? e.getMessage() : e.toString();
+        }
+        return report;
+    }
+
+    // Historique du club : flèches de tous les archers additionnées jour par jour
+    private static DayHistory sumAll(List<DayHistory> histories) {
+        DayHistory club = new DayHistory();
+        for (DayHistory history : histories) {
+            DayHistory merged = new DayHistory(club.size() + history.size());
+            HistoryMerge.merge(club, history, HistoryMerge.SUM, false, merged, NO_CHANGE_VISITOR);
+            club = merged;
+        }
+        return club;
+    }
+
+    private void writeHeader(Writer writer) throws IOException {
+        StringBuilder line = new StringBuilder("Archer,Lignes importées,Lignes ignorées");
+        for (String period : PERIOD_NAMES) {
+            line.append(',').append(period).append(",Moyenne ").append(period.toLowerCase(Locale.ROOT));
+        }
+        line.append(",Jours tirés,Maximum");
+        if (objective != null) {
+            line.append(",Objectif ").append(DateCodec.formatIso(objective.getStartDay()))
+                    .append(" - ").append(DateCodec.formatIso(objective.getEndDay()))
+                    .append(",Progrès,Flèches par jour");
+        }
+        writer.write(line.append('\n').toString());
+    }
+
+    private String formatRow(String name, int importedRows, int skippedRows, DayHistory history) {
+        HistorySnapshot snapshot = HistorySnapshot.of(history);
+        StringBuilder line = new StringBuilder(128);
+        appendName(line, name);
+        line.append(',').append(importedRows).append(',').append(skippedRows);
+        PeriodStats allTime = null;
+        for (int period : PERIODS) {
+            PeriodStats stats = PeriodStats.compute(snapshot, period, 0, today);
+            line.append(',').append(stats.getTotal())
+                    .append(',').append(String.format(Locale.ROOT, "%.2f", stats.getAverage()));
+            allTime = stats;
+        }
+        line.append(',').append(allTime.getDaysWithArrows()).append(',').append(allTime.getMaxArrows());
+        if (objective != null) {
+            int progress = objective.progress(snapshot, today, snapshot.get(today, 0));
+            line.append(',').append(objective.getTarget())
+                    .append(',').append(progress)
+                    .append(',').append(objective.dailyTarget(progress, today));
+        }
+        return line.append('\n').toString();
+    }
+
+    // Nom entre guillemets s'il contient un séparateur
+    private static void appendName(StringBuilder line, String name) {
+        if (name.indexOf(',') < 0 && name.indexOf('"') < 0 && name.indexOf('\n') < 0) {
+            line.append(name);
+        } else {
+            line.append('"').append(name.replace("\"", "\"\"")).append('"');
+        }
+    }
+
+    // "mois:600" : objectif de 600 flèches sur le mois qui contient le jour de référence
+    private static Objective parseObjective(String argument, int today) {
+        int separator = argument.indexOf(':');
+        if (separator > 0) {
+            int period = Arrays.asList(OBJECTIVE_PERIODS).indexOf(argument.substring(0, separator));
+            if (period >= 0) {
+                // Même numérotation que PeriodStats (semaine, mois, année)
+                return Objective.forPeriod(period, parsePositive(argument.substring(separator + 1)), today);
+            }
+        }
+        usage("Objectif invalide : " + argument);
+        return null;
+    }
+
+    private static int parsePositive(String value) {
+        try {
+            int number = Integer.parseInt(value);
+            if (number > 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // Message d'usage ci-dessous
+        }
+        usage("Nombre positif attendu : " + value);
+        return 0;
+    }
+
+    private static void usage(String message) {
+        System.err.println(message);
+        System.err.println("Usage : cli <dossier> [--date aaaa-MM-jj] [--objectif semaine|mois|annee:flèches]"
+                + " [--threads n] [--output rapport.csv]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.sumapp;
+
+// Arbre de Fenwick indexé par numéro de jour : total des flèches sur une plage
+// et mise à jour d'un jour en O(log n)
+public class ArrowRangeIndex {
+
+    private static final int MIN_CAPACITY = 64;
+
+    private boolean empty = true;
+    private int firstDay;
+    private int[] values;
+    private long[] tree; // indices 1..values.length
+
+    public ArrowRangeIndex() {
+        this(0, MIN_CAPACITY);
+    }
+
+    private ArrowRangeIndex(int firstDay, int capacity) {
+        this.firstDay = firstDay;
+        this.values = new int[capacity];
+        this.tree = new long[capacity + 1];
+    }
+
+    // Construction en O(n) à partir d'un historique trié
+    public static ArrowRangeIndex build(DayHistory history) {
+        if (history.isEmpty()) {
+            return new ArrowRangeIndex();
+        }
+        int first = history.firstDay();
+        int span = history.lastDay() - first + 1;
+        ArrowRangeIndex index = new ArrowRangeIndex(first, Math.max(MIN_CAPACITY, span + span / 4));
+        index.empty = false;
+        for (int i = 0; i < history.size(); i++) {
+            index.values[history.dayAt(i) - first] = history.countAt(i);
+        }
+        index.rebuildTree();
+        return index;
+    }
+
+    public ArrowRangeIndex copy() {
+        ArrowRangeIndex copy = new ArrowRangeIndex(firstDay, values.length);
+        copy.empty = empty;
+        System.arraycopy(values, 0, copy.values, 0, values.length);
+        System.arraycopy(tree, 0, copy.tree, 0, tree.length);
+        return copy;
+    }
+
+    public int get(int day) {
+        int i = day - firstDay;
+        return i >= 0 && i < values.length ? values[i] : 0;
+    }
+
+    public void set(int day, int count) {
+        ensureCovers(day);
+        int i = day - firstDay;
+        int delta = count - values[i];
+        if (delta != 0) {
+            values[i] = count;
+            for (int j = i + 1; j < tree.length; j += j & -j) {
+                tree[j] += delta;
+            }
+        }
+    }
+
+    // Total des jours fromDay..toDay inclus
+    public long sum(int fromDay, int toDay) {
+        if (toDay < fromDay) {
+            return 0;
+        }
+        long from = Math.max((long) fromDay - firstDay, 0);
+        long to = Math.min((long) toDay - firstDay, values.length - 1);
+        if (to < from) {
+            return 0;
+        }
+        return prefix((int) to + 1) - prefix((int) from);
+    }
+
+    private long prefix(int count) {
+        long total = 0;
+        for (int j = count; j > 0; j -= j & -j) {
+            total += tree[j];
+        }
+        return total;
+    }
+
+    private void ensureCovers(int day) {
+        if (empty) {
+            // Premier jour : l'index démarre ici, avec de la marge vers l'avenir
+            empty = false;
+            firstDay = day;
+            return;
+        }
+        int last = firstDay + values.length - 1;
+        if (day >= firstDay && day <= last) {
+            return;
+        }
+        int newFirst = Math.min(firstDay, day);
+        int span = Math.max(last, day) - newFirst + 1;
+        int capacity = Math.max(span, values.length * 2);
+
+        int[] newValues = new int[capacity];
+        System.arraycopy(values, 0, newValues, firstDay - newFirst, values.length);
+        firstDay = newFirst;
+        values = newValues;
+        tree = new long[capacity + 1];
+        rebuildTree();
+    }
+
+    private void rebuildTree() {
+        for (int i = 1; i < tree.length; i++) {
+            tree[i] += values[i - 1];
+            int parent = i + (i & -i);
+            if (parent < tree.length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.sumapp;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+// Écriture CSV "jj/MM/aaaa,flèches" dans un tampon d'octets réutilisé :
+// dates et nombres sont écrits chiffre par chiffre, sans String ni formateur
+public class CsvEncoder {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // Plus longue ligne possible : "jj/MM/aaaa," + int signé + "\n"
+    private static final int MAX_ROW_LENGTH = 32;
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final byte[] digits = new byte[11];
+    private OutputStream out;
+    private int position;
+
+    // Le même encodeur peut servir à plusieurs exports successifs
+    public void reset(OutputStream out) {
+        this.out = out;
+        position = 0;
+    }
+
+    public void writeHeader(String header) throws IOException {
+        byte[] bytes = (header + "\n").getBytes(Charset.forName("UTF-8"));
+        flushBuffer();
+        out.write(bytes);
+    }
+
+    public void writeRow(int epochDay, int count) throws IOException {
+        if (position + MAX_ROW_LENGTH > buffer.length) {
+            flushBuffer();
+        }
+        int civil = DateCodec.toCivil(epochDay);
+        int year = civil >> 9;
+        int month = (civil >> 5) & 0xF;
+        int day = civil & 0x1F;
+
+        writeTwoDigits(day);
+        buffer[position++] = '/';
+        writeTwoDigits(month);
+        buffer[position++] = '/';
+        writeInt(year, 4);
+        buffer[position++] = ',';
+        writeInt(count, 1);
+        buffer[position++] = '\n';
+    }
+
+    // Vide le tampon et le flux sous-jacent (sans le fermer)
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+
+    private void writeTwoDigits(int value) {
+        buffer[position++] = (byte) ('0' + value / 10);
+        buffer[position++] = (byte) ('0' + value % 10);
+    }
+
+    private void writeInt(int value, int minDigits) {
+        long v = value;
+        if (v < 0) {
+            buffer[position++] = '-';
+            v = -v;
+        }
+        int length = 0;
+        do {
+            digits[length++] = (byte) ('0' + v % 10);
+            v /= 10;
+        } while (v != 0 || length < minDigits);
+        while (length > 0) {
+            buffer[position++] = digits[--length];
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.sumapp;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+// Import CSV en flux ("date,flèches" par ligne) : lecture par blocs dans un
+// tampon char[], dates et nombres analysés directement dans le tampon sans
+// découper de chaînes. Le format de date (jj/MM/aaaa ou MM/jj/aaaa) est
+// déterminé une seule fois pour tout le fichier ; aaaa-MM-jj est toujours reconnu
+public class CsvImporter {
+
+    public interface ProgressListener {
+        // totalBytes vaut -1 si la taille du fichier est inconnue
+        void onProgress(long bytesRead, long totalBytes);
+    }
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // Lignes examinées au plus pour choisir entre jour/mois et mois/jour
+    private static final int DETECTION_ROWS = 64;
+    // Au-delà, le nombre de flèches ne tient plus dans un int
+    private static final int MAX_COUNT_DIGITS = 9;
+
+    private static final int FORMAT_UNKNOWN = 0;
+    private static final int FORMAT_DAY_FIRST = 1;
+    private static final int FORMAT_MONTH_FIRST = 2;
+
+    private final ProgressListener progressListener;
+    private volatile boolean cancelled;
+
+    private int dateFormat = FORMAT_UNKNOWN;
+    private int importedRows;
+    private int skippedRows;
+
+    // Résultat de la dernière ligne analysée
+    private int fieldA;
+    private int fieldB;
+    private int fieldC;
+    private boolean yearFirst;
+    private int rowCount;
+
+    // Lignes jj/MM ou MM/jj en attente de la détection du format
+    private int[] pendingA = new int[DETECTION_ROWS];
+    private int[] pendingB = new int[DETECTION_ROWS];
+    private int[] pendingC = new int[DETECTION_ROWS];
+    private int[] pendingCounts = new int[DETECTION_ROWS];
+    private int[] pendingLines = new int[DETECTION_ROWS];
+    private int pendingSize;
+
+    // Numéro de la ligne en cours dans le fichier
+    private int lineNumber;
+
+    // Jours importés dans l'ordre d'ajout (les lignes en attente de détection
+    // peuvent passer après des lignes suivantes), avec leur numéro de ligne
+    private int[] days = new int[256];
+    private int[] counts = new int[256];
+    private int[] lines = new int[256];
+    private int size;
+    private boolean sorted = true;
+
+    public CsvImporter(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    // Peut être appelé depuis n'importe quel thread, avant ou pendant importData()
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public int getImportedRows() {
+        return importedRows;
+    }
+
+    public int getSkippedRows() {
+        return skippedRows;
+    }
+
+    // Lit tout le flux (totalBytes : -1 si inconnu) ; renvoie null si l'import a été annulé
+    public DayHistory importData(InputStream input, long totalBytes) throws IOException {
+        CountingInputStream counter = new CountingInputStream(input);
+        Reader reader = new InputStreamReader(counter, Charset.forName("UTF-8"));
+        char[] buffer = new char[BUFFER_SIZE];
+        int length = 0;
+        boolean firstLine = true;
+        int lastProgressPercent = -1;
+
+        while (true) {
+            if (cancelled) {
+                return null;
+            }
+            if (length == buffer.length) {
+                // Ligne plus longue que le tampon
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = reader.read(buffer, length, buffer.length - length);
+            boolean endOfStream = read < 0;
+            if (!endOfStream) {
+                length += read;
+            }
+
+            // Traiter toutes les lignes complètes du tampon
+            int lineStart = 0;
+            for (int i = 0; i < length; i++) {
+                if (buffer[i] == '\n') {
+                    processLine(buffer, lineStart, i, firstLine);
+                    firstLine = false;
+                    lineStart = i + 1;
+                }
+            }
+            if (endOfStream) {
+                if (lineStart < length) {
+                    processLine(buffer, lineStart, length, firstLine);
+                }
+                break;
+            }
+            // Garder la ligne incomplète en début de tampon
+            length -= lineStart;
+            System.arraycopy(buffer, lineStart, buffer, 0, length);
+
+            if (progressListener != null) {
+                int percent = totalBytes > 0 ? (int) (counter.count * 100 / totalBytes) : -1;
+                if (percent != lastProgressPercent || totalBytes <= 0) {
+                    lastProgressPercent = percent;
+                    progressListener.onProgress(counter.count, totalBytes);
+                }
+            }
+        }
+
+        // Fin du fichier sans indice décisif : jour/mois comme à l'affichage
+        if (dateFormat == FORMAT_UNKNOWN) {
+            dateFormat = FORMAT_DAY_FIRST;
+        }
+        flushPendingRows();
+        return buildHistory();
+    }
+
+    private void processLine(char[] buffer, int start, int end, boolean firstLine) {
+        if (firstLine && start < end && buffer[start] == '\uFEFF') {
+            start++;
+        }
+        int line = lineNumber++;
+        if (!parseLine(buffer, start, end)) {
+            // Première ligne non analysable : c'est l'en-tête
+            if (!firstLine && !isBlank(buffer, start, end)) {
+                skippedRows++;
+            }
+            return;
+        }
+
+        if (yearFirst) {
+            addRow(fieldC, fieldB, fieldA, rowCount, line);
+        } else if (dateFormat == FORMAT_UNKNOWN) {
+            // Un champ supérieur à 12 ne peut être que le jour
+            if (fieldA > 12 && fieldB <= 12) {
+                dateFormat = FORMAT_DAY_FIRST;
+            } else if (fieldB > 12 && fieldA <= 12) {
+                dateFormat = FORMAT_MONTH_FIRST;
+            }
+            pendingA[pendingSize] = fieldA;
+            pendingB[pendingSize] = fieldB;
+            pendingC[pendingSize] = fieldC;
+            pendingCounts[pendingSize] = rowCount;
+            pendingLines[pendingSize] = line;
+            pendingSize++;
+            if (pendingSize == DETECTION_ROWS && dateFormat == FORMAT_UNKNOWN) {
+                dateFormat = FORMAT_DAY_FIRST;
+            }
+            if (dateFormat != FORMAT_UNKNOWN) {
+                flushPendingRows();
+            }
+        } else {
+            addSlashRow(fieldA, fieldB, fieldC, rowCount, line);
+        }
+    }
+
+    private void flushPendingRows() {
+        for (int i = 0; i < pendingSize; i++) {
+            addSlashRow(pendingA[i], pendingB[i], pendingC[i], pendingCounts[i], pendingLines[i]);
+        }
+        pendingSize = 0;
+    }
+
+    private void addSlashRow(int a, int b, int year, int count, int line) {
+        if (dateFormat == FORMAT_MONTH_FIRST) {
+            addRow(b, a, year, count, line);
+        } else {
+            addRow(a, b, year, count, line);
+        }
+    }
+
+    private void addRow(int day, int month, int year, int count, int line) {
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > DateCodec.daysInMonth(year, month)) {
+            skippedRows++;
+            return;
+        }
+        int epochDay = DateCodec.toEpochDay(year, month, day);
+        if (size == days.length) {
+            days = Arrays.copyOf(days, size * 2);
+            counts = Arrays.copyOf(counts, size * 2);
+            lines = Arrays.copyOf(lines, size * 2);
+        }
+        if (size > 0 && (epochDay < days[size - 1] || line < lines[size - 1])) {
+            sorted = false;
+        }
+        days[size] = epochDay;
+        counts[size] = count;
+        lines[size] = line;
+        size++;
+        importedRows++;
+    }
+
+    // Un jour en double garde la valeur de la dernière ligne du fichier, comme l'ancien import
+    private DayHistory buildHistory() {
+        DayHistory history = new DayHistory(size);
+        if (sorted) {
+            for (int i = 0; i < size; i++) {
+                history.append(days[i], counts[i]);
+            }
+            return history;
+        }
+        // Tri par (jour, numéro de ligne dans le fichier) : le doublon de la ligne
+        // la plus tardive est ajouté en dernier et écrase les précédents
+        long[] order = new long[size];
+        int[] rowOfLine = new int[lineNumber];
+        for (int i = 0; i < size; i++) {
+            order[i] = ((long) days[i] << 32) | lines[i];
+            rowOfLine[lines[i]] = i;
+        }
+        Arrays.sort(order);
+        for (int i = 0; i < size; i++) {
+            int row = rowOfLine[(int) order[i]];
+            history.append(days[row], counts[row]);
+        }
+        return history;
+    }
+
+    // Analyse "date,nombre[,...]" ; la date est a/b/c (ou a-b-c), yearFirst si aaaa-MM-jj
+    private boolean parseLine(char[] s, int pos, int end) {
+        pos = skipSpaces(s, pos, end);
+        boolean quoted = pos < end && s[pos] == '"';
+        if (quoted) {
+            pos++;
+        }
+
+        int start = pos;
+        int a = 0;
+        while (pos < end && isDigit(s[pos]) && pos - start < 4) {
+            a = a * 10 + (s[pos++] - '0');
+        }
+        int aDigits = pos - start;
+        if (aDigits == 0 || pos >= end || !isDateSeparator(s[pos])) {
+            return false;
+        }
+        char separator = s[pos++];
+
+        start = pos;
+        int b = 0;
+        while (pos < end && isDigit(s[pos]) && pos - start < 2) {
+            b = b * 10 + (s[pos++] - '0');
+        }
+        if (pos == start || pos >= end || s[pos] != separator) {
+            return false;
+        }
+        pos++;
+
+        start = pos;
+        int c = 0;
+        while (pos < end && isDigit(s[pos]) && pos - start < 4) {
+            c = c * 10 + (s[pos++] - '0');
+        }
+        int cDigits = pos - start;
+        if (cDigits == 0) {
+            return false;
+        }
+
+        if (aDigits == 4) {
+            if (cDigits > 2) {
+                return false;
+            }
+            yearFirst = true;
+        } else if (aDigits <= 2 && cDigits == 4) {
+            yearFirst = false;
+        } else {
+            return false;
+        }
+
+        if (quoted) {
+            if (pos >= end || s[pos] != '"') {
+                return false;
+            }
+            pos++;
+        }
+        pos = skipSpaces(s, pos, end);
+        if (pos >= end || s[pos] != ',') {
+            return false;
+        }
+        pos = skipSpaces(s, pos + 1, end);
+
+        // Nombre de flèches, éventuellement signé ou entre guillemets
+        quoted = pos < end && s[pos] == '"';
+        if (quoted) {
+            pos++;
+        }
+        boolean negative = false;
+        if (pos < end && (s[pos] == '-' || s[pos] == '+')) {
+            negative = s[pos] == '-';
+            pos++;
+        }
+        start = pos;
+        int count = 0;
+        while (pos < end && isDigit(s[pos])) {
+            if (pos - start == MAX_COUNT_DIGITS) {
+                return false;
+            }
+            count = count * 10 + (s[pos++] - '0');
+        }
+        if (pos == start) {
+            return false;
+        }
+        if (quoted) {
+            if (pos >= end || s[pos] != '"') {
+                return false;
+            }
+            pos++;
+        }
+        // Seuls des espaces ou d'autres colonnes peuvent suivre
+        pos = skipSpaces(s, pos, end);
+        if (pos < end && s[pos] != ',') {
+            return false;
+        }
+
+        fieldA = a;
+        fieldB = b;
+        fieldC = c;
+        rowCount = negative ? -count : count;
+        return true;
+    }
+
+    private static int skipSpaces(char[] s, int pos, int end) {
+        while (pos < end && (s[pos] == ' ' || s[pos] == '\t' || s[pos] == '\r')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static boolean isBlank(char[] s, int start, int end) {
+        return skipSpaces(s, start, end) == end;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDateSeparator(char c) {
+        return c == '/' || c == '-' || c == '.';
+    }
+
+    // Compte les octets lus pour la progression
+    private static class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.sumapp;
+
+import java.text.DateFormatSymbols;
+import java.util.TimeZone;
+
+// Conversion entre les dates "yyyy-MM-dd", "dd/MM/yyyy" ou "dd/MM" et un numéro
+// de jour (jours depuis le 01/01/1970), par calcul direct sans SimpleDateFormat.
+// Les chaînes de la plage de dates active sont gardées dans une table
+public final class DateCodec {
+
+    // Inférieur à tout jour valide : une date illisible couvre tout le début de l'historique
+    public static final int INVALID_DAY = Integer.MIN_VALUE;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private static final int STYLE_ISO = 0;
+    private static final int STYLE_DISPLAY = 1;
+    private static final int STYLE_SHORT = 2;
+
+    // Plage mise en cache : environ quatre ans d'historique et un an à venir
+    private static final int CACHE_DAYS_BEFORE = 4 * 366;
+    private static final int CACHE_DAYS_AFTER = 366;
+    private static final int CACHE_FIRST_DAY = today() - CACHE_DAYS_BEFORE;
+    private static final String[][] FORMAT_CACHE = new String[3][CACHE_DAYS_BEFORE + CACHE_DAYS_AFTER + 1];
+
+    private static String[] monthNames;
+
+    private DateCodec() {
+    }
+
+    public static int today() {
+        long now = System.currentTimeMillis();
+        return floorDiv(now + TimeZone.getDefault().getOffset(now), MILLIS_PER_DAY);
+    }
+
+    // Millisecondes jusqu'au prochain minuit local (début du jour today() + 1)
+    public static long millisUntilNextDay() {
+        long now = System.currentTimeMillis();
+        TimeZone zone = TimeZone.getDefault();
+        long nextDayStart = (long) (floorDiv(now + zone.getOffset(now), MILLIS_PER_DAY) + 1) * MILLIS_PER_DAY;
+        // Décalage pris à l'instant de minuit (changement d'heure dans la journée)
+        long midnight = nextDayStart - zone.getOffset(nextDayStart - zone.getOffset(now));
+        return Math.max(0, midnight - now);
+    }
+
+    public static int parseIso(CharSequence date) {
+        if (date == null || date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return INVALID_DAY;
+        }
+        return checkedEpochDay(digits(date, 0, 4), digits(date, 5, 7), digits(date, 8, 10));
+    }
+
+    // "dd/MM/yyyy", format d'affichage et d'export
+    public static int parseDisplay(CharSequence date) {
+        if (date == null || date.length() != 10 || date.charAt(2) != '/' || date.charAt(5) != '/') {
+            return INVALID_DAY;
+        }
+        return checkedEpochDay(digits(date, 6, 10), digits(date, 3, 5), digits(date, 0, 2));
+    }
+
+    // "dd/MM" : l'année n'est pas dans le texte
+    public static int parseShort(CharSequence date, int year) {
+        if (date == null || date.length() != 5 || date.charAt(2) != '/') {
+            return INVALID_DAY;
+        }
+        return checkedEpochDay(year, digits(date, 3, 5), digits(date, 0, 2));
+    }
+
+    public static String formatIso(int epochDay) {
+        return format(epochDay, STYLE_ISO);
+    }
+
+    public static String formatDisplay(int epochDay) {
+        return format(epochDay, STYLE_DISPLAY);
+    }
+
+    public static String formatShort(int epochDay) {
+        return format(epochDay, STYLE_SHORT);
+    }
+
+    // Nom du mois dans la langue de l'appareil suivi de l'année ("janvier 2024")
+    public static String formatMonthYear(int epochDay) {
+        if (monthNames == null) {
+            monthNames = new DateFormatSymbols().getMonths();
+        }
+        return monthNames[monthOf(epochDay) - 1] + " " + yearOf(epochDay);
+    }
+
+    public static int yearOf(int epochDay) {
+        return toCivil(epochDay) >> 9;
+    }
+
+    public static int monthOf(int epochDay) {
+        return (toCivil(epochDay) >> 5) & 0xF;
+    }
+
+    public static int dayOfMonth(int epochDay) {
+        return toCivil(epochDay) & 0x1F;
+    }
+
+    // 0 pour lundi ... 6 pour dimanche (le 01/01/1970 était un jeudi)
+    public static int dayOfWeek(int epochDay) {
+        int d = (epochDay + 3) % 7;
+        return d < 0 ? d + 7 : d;
+    }
+
+    public static int startOfWeek(int epochDay) {
+        return epochDay - dayOfWeek(epochDay);
+    }
+
+    public static int startOfMonth(int epochDay) {
+        return epochDay - dayOfMonth(epochDay) + 1;
+    }
+
+    public static int endOfMonth(int epochDay) {
+        int civil = toCivil(epochDay);
+        return toEpochDay(civil >> 9, (civil >> 5) & 0xF, daysInMonth(civil >> 9, (civil >> 5) & 0xF));
+    }
+
+    public static int startOfYear(int epochDay) {
+        return toEpochDay(yearOf(epochDay), 1, 1);
+    }
+
+    public static int endOfYear(int epochDay) {
+        return toEpochDay(yearOf(epochDay), 12, 31);
+    }
+
+    // 1er du mois décalé de "months" mois par rapport au mois de epochDay
+    public static int addMonths(int epochDay, int months) {
+        int civil = toCivil(epochDay);
+        int monthIndex = (civil >> 9) * 12 + ((civil >> 5) & 0xF) - 1 + months;
+        int year = monthIndex >= 0 ? monthIndex / 12 : (monthIndex - 11) / 12;
+        return toEpochDay(year, monthIndex - year * 12 + 1, 1);
+    }
+
+    // 1er janvier décalé de "years" ans par rapport à l'année de epochDay
+    public static int addYears(int epochDay, int years) {
+        return toEpochDay(yearOf(epochDay) + years, 1, 1);
+    }
+
+    // Algorithme "days from civil" (calendrier grégorien proleptique)
+    public static int toEpochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = (y >= 0 ? y : y - 399) / 400;
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    // Année, mois et jour regroupés : (année << 9) | (mois << 5) | jour
+    static int toCivil(int epochDay) {
+        int z = epochDay + 719468;
+        int era = (z >= 0 ? z : z - 146096) / 146097;
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int mp = (5 * dayOfYear + 2) / 153;
+        int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        int month = mp < 10 ? mp + 3 : mp - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return (year << 9) | (month << 5) | day;
+    }
+
+    private static int checkedEpochDay(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            return INVALID_DAY;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    private static String format(int epochDay, int style) {
+        long slot = (long) epochDay - CACHE_FIRST_DAY;
+        String[] cache = FORMAT_CACHE[style];
+        boolean cacheable = slot >= 0 && slot < cache.length;
+        if (cacheable) {
+            // Lecture sans verrou : au pire, deux threads calculent la même chaîne
+            String cached = cache[(int) slot];
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        int civil = toCivil(epochDay);
+        int year = civil >> 9;
+        int month = (civil >> 5) & 0xF;
+        int day = civil & 0x1F;
+        char[] out;
+        if (style == STYLE_ISO) {
+            out = new char[10];
+            writeDigits(out, 0, year, 4);
+            out[4] = '-';
+            writeDigits(out, 5, month, 2);
+            out[7] = '-';
+            writeDigits(out, 8, day, 2);
+        } else {
+            out = new char[style == STYLE_DISPLAY ? 10 : 5];
+            writeDigits(out, 0, day, 2);
+            out[2] = '/';
+            writeDigits(out, 3, month, 2);
+            if (style == STYLE_DISPLAY) {
+                out[5] = '/';
+                writeDigits(out, 6, year, 4);
+            }
+        }
+        String text = new String(out);
+        if (cacheable) {
+            cache[(int) slot] = text;
+        }
+        return text;
+    }
+
+    public static int daysInMonth(int year, int month) {
+        switch (month) {
+            case 2:
+                return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11:
+                return 30;
+            default:
+                return 31;
+        }
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+    }
+
+    private static int digits(CharSequence s, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static void writeDigits(char[] out, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            out[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static int floorDiv(long value, long divisor) {
+        long q = value / divisor;
+        if ((value % divisor != 0) && ((value < 0) != (divisor < 0))) {
+            q--;
+        }
+        return (int) q;
+    }
+}
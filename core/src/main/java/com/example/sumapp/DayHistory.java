@@ -0,0 +1,151 @@
+package com.example.sumapp;
+
+import java.util.Arrays;
+
+// Historique trié par numéro de jour (voir DateCodec), stocké dans deux
+// tableaux int[] parallèles : ni objet par jour, ni comparaison de chaînes.
+// L'historique de l'application est creux : un jour sans flèches n'y figure
+// pas (voir DenseDayRange pour une plage complète)
+public class DayHistory implements DaySeries {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private int[] days;
+    private int[] counts;
+    private int size;
+
+    public interface DayVisitor {
+        void visit(int day, int count);
+    }
+
+    public DayHistory() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public DayHistory(int capacity) {
+        days = new int[Math.max(capacity, 1)];
+        counts = new int[days.length];
+    }
+
+    public DayHistory copy() {
+        DayHistory copy = new DayHistory(size);
+        System.arraycopy(days, 0, copy.days, 0, size);
+        System.arraycopy(counts, 0, copy.counts, 0, size);
+        copy.size = size;
+        return copy;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public int dayAt(int index) {
+        return days[index];
+    }
+
+    @Override
+    public int countAt(int index) {
+        return counts[index];
+    }
+
+    public int firstDay() {
+        return days[0];
+    }
+
+    public int lastDay() {
+        return days[size - 1];
+    }
+
+    // Même convention que Arrays.binarySearch : (-(point d'insertion) - 1) si absent
+    public int indexOf(int day) {
+        return Arrays.binarySearch(days, 0, size, day);
+    }
+
+    public boolean contains(int day) {
+        return indexOf(day) >= 0;
+    }
+
+    public int get(int day, int defaultValue) {
+        int index = indexOf(day);
+        return index >= 0 ? counts[index] : defaultValue;
+    }
+
+    // Position du premier jour >= day
+    public int lowerBound(int day) {
+        int index = indexOf(day);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    // Renvoie true si le jour a été ajouté ou si sa valeur a changé
+    public boolean put(int day, int count) {
+        if (size == 0 || day > days[size - 1]) {
+            append(day, count);
+            return true;
+        }
+        int index = indexOf(day);
+        if (index >= 0) {
+            if (counts[index] == count) {
+                return false;
+            }
+            counts[index] = count;
+            return true;
+        }
+        int insertAt = -index - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(days, insertAt, days, insertAt + 1, size - insertAt);
+        System.arraycopy(counts, insertAt, counts, insertAt + 1, size - insertAt);
+        days[insertAt] = day;
+        counts[insertAt] = count;
+        size++;
+        return true;
+    }
+
+    // Ajout en fin, pour remplir l'historique dans l'ordre chronologique
+    public void append(int day, int count) {
+        if (size > 0 && day <= days[size - 1]) {
+            put(day, count);
+            return;
+        }
+        ensureCapacity(size + 1);
+        days[size] = day;
+        counts[size] = count;
+        size++;
+    }
+
+    // Renvoie true si le jour était présent
+    public boolean remove(int day) {
+        int index = indexOf(day);
+        if (index < 0) {
+            return false;
+        }
+        System.arraycopy(days, index + 1, days, index, size - index - 1);
+        System.arraycopy(counts, index + 1, counts, index, size - index - 1);
+        size--;
+        return true;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    // Parcours des jours fromDay..toDay inclus, dans l'ordre chronologique
+    public void forEachInRange(int fromDay, int toDay, DayVisitor visitor) {
+        for (int i = lowerBound(fromDay); i < size && days[i] <= toDay; i++) {
+            visitor.visit(days[i], counts[i]);
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > days.length) {
+            int capacity = Math.max(needed, days.length + (days.length >> 1));
+            days = Arrays.copyOf(days, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+    }
+}
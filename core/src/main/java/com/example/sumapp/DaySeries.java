@@ -0,0 +1,12 @@
+package com.example.sumapp;
+
+// Suite de jours lue par indice (graphiques, réduction des points) : soit les
+// jours enregistrés (DayHistory), soit une plage complète (DenseDayRange)
+public interface DaySeries {
+
+    int size();
+
+    int dayAt(int index);
+
+    int countAt(int index);
+}
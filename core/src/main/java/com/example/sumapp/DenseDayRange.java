@@ -0,0 +1,32 @@
+package com.example.sumapp;
+
+// Vue de chaque jour de fromDay à toDay sur un historique creux : les jours
+// sans flèches ne sont pas stockés et valent 0 ici. Rien n'est copié : chaque
+// lecture est une recherche dans les seuls jours enregistrés
+public final class DenseDayRange implements DaySeries {
+
+    private final DayHistory history;
+    private final int fromDay;
+    private final int toDay;
+
+    public DenseDayRange(DayHistory history, int fromDay, int toDay) {
+        this.history = history;
+        this.fromDay = fromDay;
+        this.toDay = toDay;
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, toDay - fromDay + 1);
+    }
+
+    @Override
+    public int dayAt(int index) {
+        return fromDay + index;
+    }
+
+    @Override
+    public int countAt(int index) {
+        return history.get(fromDay + index, 0);
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.sumapp;
+
+// Réduction du nombre de points envoyés aux graphiques : LTTB (Largest-Triangle-
+// Three-Buckets) pour la courbe, regroupement par seaux pour les barres.
+// Les points sont (indice, nombre de flèches) d'une suite de jours (DaySeries)
+public final class Downsampler {
+
+    private Downsampler() {
+    }
+
+    // Indices retenus dans [from, to), au plus "threshold" points, premier et dernier
+    // toujours inclus. Sans réduction si la plage tient déjà dans le budget
+    public static int[] lttb(DaySeries data, int from, int to, int threshold) {
+        int count = Math.max(0, to - from);
+        if (threshold < 3 || count <= threshold) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = from + i;
+            }
+            return all;
+        }
+
+        int[] sampled = new int[threshold];
+        int sampledCount = 0;
+        // Les points intérieurs sont répartis en threshold - 2 seaux
+        int buckets = threshold - 2;
+        int a = from;
+        sampled[sampledCount++] = a;
+
+        for (int i = 0; i < buckets; i++) {
+            // Point moyen du seau suivant
+            int avgStart = bucketStart(from, count, buckets, i + 1);
+            int avgEnd = Math.min(bucketStart(from, count, buckets, i + 2), to);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += j;
+                avgY += data.countAt(j);
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // Point du seau courant formant le plus grand triangle avec a et la moyenne
+            int rangeStart = bucketStart(from, count, buckets, i);
+            int rangeEnd = bucketStart(from, count, buckets, i + 1);
+            double ax = a;
+            double ay = data.countAt(a);
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((ax - avgX) * (data.countAt(j) - ay) - (ax - j) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[sampledCount++] = next;
+            a = next;
+        }
+
+        sampled[sampledCount] = to - 1;
+        return sampled;
+    }
+
+    // Premier point du seau "bucket" : calcul entier, le dernier seau intérieur
+    // s'arrête exactement avant le dernier point (un calcul en double pouvait
+    // s'arrêter un point plus tôt et ne jamais retenir l'avant-dernier)
+    private static int bucketStart(int from, int count, int buckets, int bucket) {
+        return from + 1 + (int) ((long) bucket * (count - 2) / buckets);
+    }
+
+    // Nombre de jours par barre pour afficher "count" jours en au plus "budget" barres
+    public static int bucketSize(int count, int budget) {
+        if (budget <= 0 || count <= budget) {
+            return 1;
+        }
+        return (count + budget - 1) / budget;
+    }
+
+    // Maximum des jours [from, to) : une barre regroupée montre le meilleur jour
+    public static int maxCount(DaySeries data, int from, int to) {
+        int max = 0;
+        for (int i = from; i < to; i++) {
+            max = Math.max(max, data.countAt(i));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.sumapp;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+
+// Fusion de jours importés dans l'historique existant, en un seul parcours
+// linéaire des deux suites triées : aucune table intermédiaire, ni recherche
+// par jour. Le même parcours donne l'aperçu exact des différences (sans rien
+// construire) ou l'historique fusionné et la liste des jours modifiés
+public class HistoryMerge {
+
+    // Règle appliquée à un jour présent des deux côtés
+    public static final int REPLACE = 0;
+    public static final int SUM = 1;
+    public static final int MAX = 2;
+    public static final int KEEP_EXISTING = 3;
+
+    private static final String[] STRATEGY_NAMES = {
+            "Remplacer", "Additionner", "Garder le maximum", "Garder l'existant"
+    };
+
+    // Jour modifié par la fusion (oldCount = 0 si le jour n'existait pas)
+    public interface ChangeVisitor {
+        void onChange(int day, boolean existed, int oldCount, int newCount);
+    }
+
+    // Différences qu'une fusion apporterait à l'historique
+    public static class Preview implements ChangeVisitor {
+        private int addedDays;
+        private int changedDays;
+        private long arrowDelta;
+
+        @Override
+        public void onChange(int day, boolean existed, int oldCount, int newCount) {
+            if (existed) {
+                changedDays++;
+            } else {
+                addedDays++;
+            }
+            arrowDelta += (long) newCount - oldCount;
+        }
+
+        public int getAddedDays() {
+            return addedDays;
+        }
+
+        public int getChangedDays() {
+            return changedDays;
+        }
+
+        public long getArrowDelta() {
+            return arrowDelta;
+        }
+
+        public boolean isEmpty() {
+            return addedDays == 0 && changedDays == 0;
+        }
+    }
+
+    private HistoryMerge() {
+    }
+
+    public static String strategyName(int strategy) {
+        return STRATEGY_NAMES[strategy];
+    }
+
+    public static int strategyCount() {
+        return STRATEGY_NAMES.length;
+    }
+
+    public static Preview preview(DayHistory existing, DayHistory incoming, int strategy) {
+        Preview preview = new Preview();
+        merge(existing, incoming, strategy, false, null, preview);
+        return preview;
+    }
+
+    // Parcours commun : écrit l'historique fusionné dans "merged" (si non null, vide
+    // au départ) et signale chaque jour modifié dans l'ordre chronologique.
+    // Sans keepZeroDays, un jour qui tombe à 0 est retiré (historique creux) ;
+    // avec, il est gardé à 0 (jours à écrire, où 0 signifie "à supprimer")
+    public static void merge(DayHistory existing, DayHistory incoming, int strategy, boolean keepZeroDays,
+                             DayHistory merged, ChangeVisitor visitor) {
+        int e = 0;
+        int i = 0;
+        int existingSize = existing.size();
+        int incomingSize = incoming.size();
+
+        while (e < existingSize || i < incomingSize) {
+            int existingDay = e < existingSize ? existing.dayAt(e) : Integer.MAX_VALUE;
+            int incomingDay = i < incomingSize ? incoming.dayAt(i) : Integer.MAX_VALUE;
+            int day;
+            int newCount;
+            if (existingDay == incomingDay) {
+                day = existingDay;
+                int oldCount = existing.countAt(e);
+                newCount = resolve(strategy, oldCount, incoming.countAt(i));
+                if (newCount != oldCount) {
+                    visitor.onChange(day, true, oldCount, newCount);
+                }
+                e++;
+                i++;
+            } else if (existingDay < incomingDay) {
+                day = existingDay;
+                newCount = existing.countAt(e);
+                e++;
+            } else {
+                day = incomingDay;
+                newCount = incoming.countAt(i);
+                if (newCount != 0 || keepZeroDays) {
+                    visitor.onChange(day, false, 0, newCount);
+                }
+                i++;
+            }
+            if (merged != null && (newCount != 0 || keepZeroDays)) {
+                merged.append(day, newCount);
+            }
+        }
+    }
+
+    // Fusion à k voies d'historiques triés (entrées null ignorées), en O(n log k).
+    // À égalité de jour, la valeur de l'historique d'indice le plus grand l'emporte
+    public static DayHistory mergeAll(final DayHistory[] histories) {
+        final int[] positions = new int[histories.length];
+        int total = 0;
+        // Tas des fichiers non épuisés, ordonné par jour courant puis par indice
+        PriorityQueue<Integer> heap = new PriorityQueue<>(Math.max(1, histories.length),
+                new Comparator<Integer>() {
+                    @Override
+                    public int compare(Integer a, Integer b) {
+                        int dayA = histories[a].dayAt(positions[a]);
+                        int dayB = histories[b].dayAt(positions[b]);
+                        return dayA != dayB ? (dayA < dayB ? -1 : 1) : a.compareTo(b);
+                    }
+                });
+        for (int i = 0; i < histories.length; i++) {
+            if (histories[i] != null && !histories[i].isEmpty()) {
+                total += histories[i].size();
+                heap.add(i);
+            }
+        }
+
+        DayHistory merged = new DayHistory(total);
+        int pendingDay = 0;
+        int pendingCount = 0;
+        boolean pending = false;
+        while (!heap.isEmpty()) {
+            int source = heap.poll();
+            int day = histories[source].dayAt(positions[source]);
+            if (pending && day != pendingDay) {
+                merged.append(pendingDay, pendingCount);
+            }
+            // Même jour : le fichier suivant remplace la valeur en attente
+            pendingDay = day;
+            pendingCount = histories[source].countAt(positions[source]);
+            pending = true;
+            if (++positions[source] < histories[source].size()) {
+                heap.add(source);
+            }
+        }
+        if (pending) {
+            merged.append(pendingDay, pendingCount);
+        }
+        return merged;
+    }
+
+    static int resolve(int strategy, int existingCount, int incomingCount) {
+        switch (strategy) {
+            case SUM:
+                // Pas de débordement pour des historiques très chargés
+                long sum = (long) existingCount + incomingCount;
+                return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, sum));
+            case MAX:
+                return Math.max(existingCount, incomingCount);
+            case KEEP_EXISTING:
+                return existingCount;
+            case REPLACE:
+            default:
+                return incomingCount;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.example.sumapp;
+
+// Vue immuable de l'historique à un instant donné : peut être lue depuis
+// n'importe quel thread sans verrou.
+// Le dernier jour (celui du compteur en direct) est tenu à part : les
+// instantanés successifs d'un même jour partagent l'historique, l'index par
+// plage et les totaux par période, et ne diffèrent que par ce jour. Les
+// structures complètes ne sont reconstruites que si un autre jour change, ou
+// à la première lecture qui en a besoin (statistiques, fusion)
+public final class HistorySnapshot {
+
+    // Partagés entre instantanés : tous les jours sauf le jour en direct
+    private final DayHistory history;
+    private final ArrowRangeIndex rangeIndex;
+    private final PeriodRollups rollups;
+    private final long version;
+
+    // Jour en direct, postérieur à tous ceux de "history" (compte 0 : absent)
+    private final boolean hasTail;
+    private final int tailDay;
+    private final int tailCount;
+
+    // Historique et totaux complets, calculés à la première lecture
+    private volatile DayHistory fullHistory;
+    private volatile PeriodRollups fullRollups;
+
+    HistorySnapshot(DayHistory history, ArrowRangeIndex rangeIndex, PeriodRollups rollups, long version) {
+        this(history, rangeIndex, rollups, version, false, 0, 0);
+    }
+
+    private HistorySnapshot(DayHistory history, ArrowRangeIndex rangeIndex, PeriodRollups rollups, long version,
+                            boolean hasTail, int tailDay, int tailCount) {
+        this.history = history;
+        this.rangeIndex = rangeIndex;
+        this.rollups = rollups;
+        this.version = version;
+        this.hasTail = hasTail;
+        this.tailDay = tailDay;
+        this.tailCount = tailCount;
+    }
+
+    // Premier instantané d'un historique chargé ou importé (version 0)
+    public static HistorySnapshot of(DayHistory history) {
+        return new HistorySnapshot(history, ArrowRangeIndex.build(history), PeriodRollups.build(history), 0);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int size() {
+        return hasLiveTail() ? history.size() + 1 : history.size();
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    public int dayAt(int index) {
+        return index == history.size() && hasLiveTail() ? tailDay : history.dayAt(index);
+    }
+
+    public int countAt(int index) {
+        return index == history.size() && hasLiveTail() ? tailCount : history.countAt(index);
+    }
+
+    public int firstDay() {
+        return history.isEmpty() ? tailDay : history.firstDay();
+    }
+
+    public int lastDay() {
+        return hasLiveTail() ? tailDay : history.lastDay();
+    }
+
+    public int indexOf(int day) {
+        if (hasLiveTail() && day >= tailDay) {
+            return day == tailDay ? history.size() : -(history.size() + 1) - 1;
+        }
+        return history.indexOf(day);
+    }
+
+    public int lowerBound(int day) {
+        int index = indexOf(day);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    public int get(int day, int defaultValue) {
+        return hasLiveTail() && day == tailDay ? tailCount : history.get(day, defaultValue);
+    }
+
+    // Total des flèches du jour fromDay au jour toDay inclus, en O(log n)
+    public int sumArrows(int fromDay, int toDay) {
+        long sum = rangeIndex.sum(fromDay, toDay);
+        if (hasTail && tailDay >= fromDay && tailDay <= toDay) {
+            sum += tailCount;
+        }
+        return (int) sum;
+    }
+
+    // Totaux par semaine, mois et année (lecture seule : ne pas appeler update())
+    public PeriodRollups getRollups() {
+        if (!hasTail || tailCount == 0) {
+            return rollups;
+        }
+        PeriodRollups full = fullRollups;
+        if (full == null) {
+            // Le jour en direct n'est pas dans les totaux partagés : compte 0 -> tailCount
+            full = rollups.copy();
+            full.update(tailDay, 0, tailCount, history());
+            fullRollups = full;
+        }
+        return full;
+    }
+
+    // Instantané suivant avec le jour modifié, ou celui-ci si rien ne change.
+    // Historique creux : count = 0 retire le jour. Le jour en direct (et tout jour
+    // postérieur à l'historique) change en O(1) ; un autre jour coûte une copie
+    HistorySnapshot withDay(int day, int count) {
+        if (get(day, 0) == count) {
+            return this;
+        }
+        boolean afterHistory = history.isEmpty() || day > history.lastDay();
+        if (afterHistory && (!hasTail || day == tailDay)) {
+            return new HistorySnapshot(history, rangeIndex, rollups, version + 1, true, day, count);
+        }
+
+        // Copie complète, jour en direct compris, puis modification du jour
+        DayHistory nextHistory = history().copy();
+        ArrowRangeIndex nextRangeIndex = rangeIndex.copy();
+        PeriodRollups nextRollups = rollups.copy();
+        if (hasTail) {
+            nextRangeIndex.set(tailDay, tailCount);
+            nextRollups.update(tailDay, 0, tailCount, nextHistory);
+        }
+        int oldCount = nextHistory.get(day, 0);
+        nextHistory.remove(day);
+        if (nextHistory.isEmpty() || day > nextHistory.lastDay()) {
+            // Nouveau dernier jour (jour suivant, ou jour en direct chargé de la base) :
+            // il devient le jour en direct, hors des structures partagées
+            nextRangeIndex.set(day, 0);
+            nextRollups.update(day, oldCount, 0, nextHistory);
+            return new HistorySnapshot(nextHistory, nextRangeIndex, nextRollups, version + 1, true, day, count);
+        }
+        if (count != 0) {
+            nextHistory.put(day, count);
+        }
+        nextRangeIndex.set(day, count);
+        nextRollups.update(day, oldCount, count, nextHistory);
+        return new HistorySnapshot(nextHistory, nextRangeIndex, nextRollups, version + 1);
+    }
+
+    // Instantané suivant après fusion de jours importés (voir HistoryMerge), ou celui-ci
+    // si rien ne change. Les jours modifiés et leur nouvelle valeur sont ajoutés à "changes"
+    HistorySnapshot withMerged(DayHistory incoming, int strategy, final DayHistory changes) {
+        final DayHistory oldCounts = new DayHistory();
+        final int firstChange = changes.size();
+        DayHistory currentHistory = history();
+        DayHistory nextHistory = new DayHistory(currentHistory.size() + incoming.size());
+        HistoryMerge.merge(currentHistory, incoming, strategy, false, nextHistory, new HistoryMerge.ChangeVisitor() {
+            @Override
+            public void onChange(int day, boolean existed, int oldCount, int newCount) {
+                // Jours croissants : ajouts en fin
+                changes.append(day, newCount);
+                oldCounts.append(day, oldCount);
+            }
+        });
+        if (oldCounts.isEmpty()) {
+            return this;
+        }
+
+        ArrowRangeIndex nextRangeIndex;
+        PeriodRollups nextRollups;
+        if (oldCounts.size() > nextHistory.size() / 8) {
+            // Grosse fusion : reconstruire les index coûte moins que les mises à jour
+            nextRangeIndex = ArrowRangeIndex.build(nextHistory);
+            nextRollups = PeriodRollups.build(nextHistory);
+        } else {
+            nextRangeIndex = rangeIndex.copy();
+            if (hasTail) {
+                nextRangeIndex.set(tailDay, tailCount);
+            }
+            nextRollups = getRollups().copy();
+            for (int i = 0; i < oldCounts.size(); i++) {
+                int day = oldCounts.dayAt(i);
+                int newCount = changes.countAt(firstChange + i);
+                nextRangeIndex.set(day, newCount);
+                nextRollups.update(day, oldCounts.countAt(i), newCount, nextHistory);
+            }
+        }
+        return new HistorySnapshot(nextHistory, nextRangeIndex, nextRollups, version + 1);
+    }
+
+    // Différences qu'apporterait la fusion de jours importés (voir HistoryMerge)
+    public HistoryMerge.Preview previewMerge(DayHistory incoming, int strategy) {
+        return HistoryMerge.preview(history(), incoming, strategy);
+    }
+
+    // Copie modifiable, pour les traitements qui complètent l'historique
+    public DayHistory copyHistory() {
+        return history().copy();
+    }
+
+    // Historique complet, jour en direct compris (ne pas modifier)
+    DayHistory history() {
+        if (!hasLiveTail()) {
+            return history;
+        }
+        DayHistory full = fullHistory;
+        if (full == null) {
+            full = new DayHistory(history.size() + 1);
+            for (int i = 0; i < history.size(); i++) {
+                full.append(history.dayAt(i), history.countAt(i));
+            }
+            full.append(tailDay, tailCount);
+            fullHistory = full;
+        }
+        return full;
+    }
+
+    private boolean hasLiveTail() {
+        return hasTail && tailCount != 0;
+    }
+}
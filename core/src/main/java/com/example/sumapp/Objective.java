@@ -0,0 +1,80 @@
+package com.example.sumapp;
+
+// Objectif de flèches sur une semaine, un mois ou une année (même numérotation
+// que PeriodStats), du premier au dernier jour de la période qui contenait le
+// jour de création
+public final class Objective {
+
+    private final int period;
+    private final int target;
+    private final int startDay;
+    private final int endDay;
+
+    public Objective(int period, int target, int startDay, int endDay) {
+        this.period = period;
+        this.target = target;
+        this.startDay = startDay;
+        this.endDay = endDay;
+    }
+
+    // Objectif de la période courante : du lundi au dimanche, du 1er à la fin
+    // du mois ou du 1er janvier au 31 décembre
+    public static Objective forPeriod(int period, int target, int today) {
+        int startDay;
+        int endDay;
+        if (period == PeriodStats.PERIOD_WEEK) {
+            startDay = DateCodec.startOfWeek(today);
+            endDay = startDay + 6;
+        } else if (period == PeriodStats.PERIOD_MONTH) {
+            startDay = DateCodec.startOfMonth(today);
+            endDay = DateCodec.endOfMonth(today);
+        } else {
+            startDay = DateCodec.startOfYear(today);
+            endDay = DateCodec.endOfYear(today);
+        }
+        return new Objective(period, target, startDay, endDay);
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    public int getTarget() {
+        return target;
+    }
+
+    public int getStartDay() {
+        return startDay;
+    }
+
+    public int getEndDay() {
+        return endDay;
+    }
+
+    public int getNumberOfDays() {
+        return endDay - startDay + 1;
+    }
+
+    // Flèches tirées depuis le début jusqu'à hier, plus le compte du jour en direct
+    public int progress(HistorySnapshot snapshot, int today, int todayCount) {
+        return snapshot.sumArrows(startDay, today - 1) + todayCount;
+    }
+
+    // Jours restants, aujourd'hui compris (0 une fois la période terminée)
+    public int daysRemaining(int today) {
+        return Math.max(0, endDay - today + 1);
+    }
+
+    // Flèches par jour pour atteindre l'objectif d'ici la fin de la période
+    public int dailyTarget(int progress, int today) {
+        int days = daysRemaining(today);
+        if (days <= 0) {
+            return 0;
+        }
+        return Math.max(0, (int) Math.ceil((double) (target - progress) / days));
+    }
+
+    public boolean isReached(int progress) {
+        return progress >= target;
+    }
+}
@@ -0,0 +1,190 @@
+package com.example.sumapp;
+
+// Totaux pré-agrégés par semaine, mois et année (flèches, jours avec flèches,
+// maximum en un jour), tenus à jour à chaque modification d'un jour :
+// les statistiques d'une période se lisent en O(1)
+public class PeriodRollups {
+
+    public static final int WEEK = 0;
+    public static final int MONTH = 1;
+    public static final int YEAR = 2;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final Table[] tables = new Table[3];
+
+    // Une ligne par période, indexée par clé - firstKey
+    private static class Table {
+        boolean empty = true;
+        int firstKey;
+        long[] totals;
+        int[] activeDays;
+        int[] maxCounts;
+
+        Table(int capacity) {
+            totals = new long[capacity];
+            activeDays = new int[capacity];
+            maxCounts = new int[capacity];
+        }
+
+        Table copy() {
+            Table copy = new Table(0);
+            copy.empty = empty;
+            copy.firstKey = firstKey;
+            copy.totals = totals.clone();
+            copy.activeDays = activeDays.clone();
+            copy.maxCounts = maxCounts.clone();
+            return copy;
+        }
+
+        int slot(int key) {
+            long i = (long) key - firstKey;
+            return empty || i < 0 || i >= totals.length ? -1 : (int) i;
+        }
+
+        int ensureCovers(int key) {
+            if (empty) {
+                empty = false;
+                firstKey = key;
+                return 0;
+            }
+            int last = firstKey + totals.length - 1;
+            if (key >= firstKey && key <= last) {
+                return key - firstKey;
+            }
+            int newFirst = Math.min(firstKey, key);
+            int span = Math.max(last, key) - newFirst + 1;
+            int capacity = Math.max(span, totals.length * 2);
+            int shift = firstKey - newFirst;
+            totals = grow(totals, capacity, shift);
+            activeDays = grow(activeDays, capacity, shift);
+            maxCounts = grow(maxCounts, capacity, shift);
+            firstKey = newFirst;
+            return key - firstKey;
+        }
+
+        private static long[] grow(long[] values, int capacity, int shift) {
+            long[] grown = new long[capacity];
+            System.arraycopy(values, 0, grown, shift, values.length);
+            return grown;
+        }
+
+        private static int[] grow(int[] values, int capacity, int shift) {
+            int[] grown = new int[capacity];
+            System.arraycopy(values, 0, grown, shift, values.length);
+            return grown;
+        }
+    }
+
+    public PeriodRollups() {
+        for (int unit = WEEK; unit <= YEAR; unit++) {
+            tables[unit] = new Table(MIN_CAPACITY);
+        }
+    }
+
+    private PeriodRollups(Table[] source) {
+        for (int unit = WEEK; unit <= YEAR; unit++) {
+            tables[unit] = source[unit].copy();
+        }
+    }
+
+    // Construction en un seul passage sur l'historique trié
+    public static PeriodRollups build(DayHistory history) {
+        PeriodRollups rollups = new PeriodRollups();
+        for (int i = 0; i < history.size(); i++) {
+            int count = history.countAt(i);
+            if (count == 0) {
+                continue;
+            }
+            int day = history.dayAt(i);
+            for (int unit = WEEK; unit <= YEAR; unit++) {
+                Table table = rollups.tables[unit];
+                int slot = table.ensureCovers(keyOf(unit, day));
+                table.totals[slot] += count;
+                if (count > 0) {
+                    table.activeDays[slot]++;
+                }
+                if (count > table.maxCounts[slot]) {
+                    table.maxCounts[slot] = count;
+                }
+            }
+        }
+        return rollups;
+    }
+
+    public PeriodRollups copy() {
+        return new PeriodRollups(tables);
+    }
+
+    // À appeler après la modification du jour dans "history" (oldCount -> newCount)
+    void update(int day, int oldCount, int newCount, DayHistory history) {
+        if (oldCount == newCount) {
+            return;
+        }
+        for (int unit = WEEK; unit <= YEAR; unit++) {
+            Table table = tables[unit];
+            int key = keyOf(unit, day);
+            int slot = table.ensureCovers(key);
+            table.totals[slot] += (long) newCount - oldCount;
+            table.activeDays[slot] += (newCount > 0 ? 1 : 0) - (oldCount > 0 ? 1 : 0);
+            if (newCount >= table.maxCounts[slot]) {
+                table.maxCounts[slot] = Math.max(newCount, 0);
+            } else if (oldCount == table.maxCounts[slot]) {
+                // L'ancien maximum a baissé : relire les jours de cette seule période
+                table.maxCounts[slot] = maxInRange(history, firstDayOf(unit, key), lastDayOf(unit, key));
+            }
+        }
+    }
+
+    public long total(int unit, int key) {
+        int slot = tables[unit].slot(key);
+        return slot >= 0 ? tables[unit].totals[slot] : 0;
+    }
+
+    public int activeDays(int unit, int key) {
+        int slot = tables[unit].slot(key);
+        return slot >= 0 ? tables[unit].activeDays[slot] : 0;
+    }
+
+    public int maxCount(int unit, int key) {
+        int slot = tables[unit].slot(key);
+        return slot >= 0 ? tables[unit].maxCounts[slot] : 0;
+    }
+
+    // Semaines numérotées depuis le lundi 29/12/1969
+    public static int keyOf(int unit, int day) {
+        switch (unit) {
+            case WEEK:
+                int shifted = day + 3;
+                return shifted >= 0 ? shifted / 7 : (shifted - 6) / 7;
+            case MONTH:
+                return DateCodec.yearOf(day) * 12 + DateCodec.monthOf(day) - 1;
+            default:
+                return DateCodec.yearOf(day);
+        }
+    }
+
+    public static int firstDayOf(int unit, int key) {
+        switch (unit) {
+            case WEEK:
+                return key * 7 - 3;
+            case MONTH:
+                int year = key >= 0 ? key / 12 : (key - 11) / 12;
+                return DateCodec.toEpochDay(year, key - year * 12 + 1, 1);
+            default:
+                return DateCodec.toEpochDay(key, 1, 1);
+        }
+    }
+
+    public static int lastDayOf(int unit, int key) {
+        return firstDayOf(unit, key + 1) - 1;
+    }
+
+    private static int maxInRange(DayHistory history, int fromDay, int toDay) {
+        int max = 0;
+        for (int i = history.lowerBound(fromDay); i < history.size() && history.dayAt(i) <= toDay; i++) {
+            max = Math.max(max, history.countAt(i));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,202 @@
+package com.example.sumapp;
+
+// Résultat calculé pour une période de l'écran de statistiques : série des
+// graphiques et totaux. Calculé hors du thread principal depuis un instantané
+public final class PeriodStats {
+
+    // Périodes pour les onglets
+    public static final int PERIOD_WEEK = 0;
+    public static final int PERIOD_MONTH = 1;
+    public static final int PERIOD_YEAR = 2;
+    public static final int PERIOD_ALL = 3;
+    // Tout l'historique agrégé par mois / par année (lu dans les totaux pré-calculés)
+    public static final int PERIOD_ALL_BY_MONTH = 4;
+    public static final int PERIOD_ALL_BY_YEAR = 5;
+
+    private final int period;
+    private final int offset;
+    private final int today;
+    private final long version;
+
+    // Bornes (numéros de jour) de la période filtrée
+    private final int startDay;
+    private final int endDay;
+    private final DaySeries series;
+
+    private final long total;
+    private final int numberOfDays;
+    private final int daysWithArrows;
+    private final int maxArrows;
+
+    private PeriodStats(int period, int offset, int today, long version, int startDay, int endDay,
+                        DaySeries series, long total, int numberOfDays, int daysWithArrows, int maxArrows) {
+        this.period = period;
+        this.offset = offset;
+        this.today = today;
+        this.version = version;
+        this.startDay = startDay;
+        this.endDay = endDay;
+        this.series = series;
+        this.total = total;
+        this.numberOfDays = numberOfDays;
+        this.daysWithArrows = daysWithArrows;
+        this.maxArrows = maxArrows;
+    }
+
+    public static boolean isAllTimePeriod(int period) {
+        return period == PERIOD_ALL || period == PERIOD_ALL_BY_MONTH || period == PERIOD_ALL_BY_YEAR;
+    }
+
+    // Renvoie null si le thread a été interrompu (calcul annulé)
+    public static PeriodStats compute(HistorySnapshot snapshot, int period, int offset, int today) {
+        int startDay;
+        int endDay;
+        DaySeries series;
+
+        switch (period) {
+            case PERIOD_WEEK:
+                // Du lundi au dimanche de la semaine (courante + offset en semaines)
+                startDay = DateCodec.startOfWeek(today) + 7 * offset;
+                endDay = startDay + 6;
+                series = new DenseDayRange(snapshot.history(), startDay, endDay);
+                break;
+
+            case PERIOD_MONTH:
+                // Du 1er au dernier jour du mois (courant + offset en mois)
+                startDay = DateCodec.addMonths(today, offset);
+                endDay = DateCodec.endOfMonth(startDay);
+                series = new DenseDayRange(snapshot.history(), startDay, endDay);
+                break;
+
+            case PERIOD_YEAR:
+                // Du 1er janvier au 31 décembre (année courante + offset)
+                startDay = DateCodec.addYears(today, offset);
+                endDay = DateCodec.endOfYear(startDay);
+                series = new DenseDayRange(snapshot.history(), startDay, endDay);
+                break;
+
+            case PERIOD_ALL_BY_MONTH:
+                startDay = Integer.MIN_VALUE;
+                endDay = Integer.MAX_VALUE;
+                series = rollupSeries(snapshot, PeriodRollups.MONTH);
+                break;
+
+            case PERIOD_ALL_BY_YEAR:
+                startDay = Integer.MIN_VALUE;
+                endDay = Integer.MAX_VALUE;
+                series = rollupSeries(snapshot, PeriodRollups.YEAR);
+                break;
+
+            default:
+                // Toutes les données, jours sans flèches compris : vue sans copie
+                startDay = Integer.MIN_VALUE;
+                endDay = Integer.MAX_VALUE;
+                series = snapshot.isEmpty() ? new DayHistory()
+                        : new DenseDayRange(snapshot.history(), snapshot.firstDay(), Math.max(snapshot.lastDay(), today));
+                break;
+        }
+        if (series == null) {
+            return null;
+        }
+
+        // Totaux pré-agrégés : O(1) pour une semaine, un mois ou une année
+        PeriodRollups rollups = snapshot.getRollups();
+        long total = 0;
+        int numberOfDays;
+        int daysWithArrows = 0;
+        int maxArrows = 0;
+
+        if (isAllTimePeriod(period)) {
+            // Tout l'historique : une ligne par année ; moyenne sur tous les jours
+            // depuis le premier enregistré (les jours à 0 ne sont pas stockés)
+            numberOfDays = 0;
+            if (!snapshot.isEmpty()) {
+                numberOfDays = Math.max(snapshot.lastDay(), today) - snapshot.firstDay() + 1;
+                int lastYear = PeriodRollups.keyOf(PeriodRollups.YEAR, snapshot.lastDay());
+                for (int year = PeriodRollups.keyOf(PeriodRollups.YEAR, snapshot.firstDay()); year <= lastYear; year++) {
+                    total += rollups.total(PeriodRollups.YEAR, year);
+                    daysWithArrows += rollups.activeDays(PeriodRollups.YEAR, year);
+                    maxArrows = Math.max(maxArrows, rollups.maxCount(PeriodRollups.YEAR, year));
+                }
+            }
+        } else {
+            int unit = period == PERIOD_WEEK ? PeriodRollups.WEEK
+                    : period == PERIOD_MONTH ? PeriodRollups.MONTH : PeriodRollups.YEAR;
+            int key = PeriodRollups.keyOf(unit, startDay);
+            total = rollups.total(unit, key);
+            daysWithArrows = rollups.activeDays(unit, key);
+            maxArrows = rollups.maxCount(unit, key);
+            // Moyenne sur tous les jours de la période (y compris les jours à 0)
+            numberOfDays = endDay - startDay + 1;
+        }
+
+        return new PeriodStats(period, offset, today, snapshot.getVersion(), startDay, endDay,
+                series, total, numberOfDays, daysWithArrows, maxArrows);
+    }
+
+    // Un point par mois ou par année, daté du premier jour de la période
+    private static DayHistory rollupSeries(HistorySnapshot snapshot, int unit) {
+        if (snapshot.isEmpty()) {
+            return new DayHistory();
+        }
+        PeriodRollups rollups = snapshot.getRollups();
+        int firstKey = PeriodRollups.keyOf(unit, snapshot.firstDay());
+        int lastKey = PeriodRollups.keyOf(unit, snapshot.lastDay());
+        DayHistory series = new DayHistory(lastKey - firstKey + 1);
+        for (int key = firstKey; key <= lastKey; key++) {
+            if (Thread.currentThread().isInterrupted()) {
+                return null;
+            }
+            series.append(PeriodRollups.firstDayOf(unit, key), (int) rollups.total(unit, key));
+        }
+        return series;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getToday() {
+        return today;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getStartDay() {
+        return startDay;
+    }
+
+    public int getEndDay() {
+        return endDay;
+    }
+
+    public DaySeries getSeries() {
+        return series;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public int getNumberOfDays() {
+        return numberOfDays;
+    }
+
+    public int getDaysWithArrows() {
+        return daysWithArrows;
+    }
+
+    public int getMaxArrows() {
+        return maxArrows;
+    }
+
+    public float getAverage() {
+        return numberOfDays > 0 ? (float) total / numberOfDays : 0;
+    }
+}
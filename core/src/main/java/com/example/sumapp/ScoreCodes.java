@@ -0,0 +1,49 @@
+package com.example.sumapp;
+
+// Codes des scores flèche par flèche (0 à 10, X, M), tels qu'enregistrés sur
+// 4 bits par le journal des scores, et leur lecture depuis la saisie
+public final class ScoreCodes {
+
+    public static final int CODE_X = 11;
+    public static final int CODE_M = 12;
+    public static final int INVALID_SCORE = -1;
+
+    // Valeur en points de chaque code (X = 10, M = 0)
+    private static final int[] VALUES = {0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 10, 0, 0, 0, 0};
+
+    private ScoreCodes() {
+    }
+
+    // Code d'un score saisi ("0" à "10", "X", "M"), INVALID_SCORE sinon
+    public static int parseScore(CharSequence token) {
+        return parseScore(token, 0, token.length());
+    }
+
+    // Même chose pour les caractères [from, to) de "text", sans extraire de sous-chaîne
+    public static int parseScore(CharSequence text, int from, int to) {
+        int length = to - from;
+        if (length == 1) {
+            char c = text.charAt(from);
+            if (c >= '0' && c <= '9') {
+                return c - '0';
+            }
+            if (c == 'X' || c == 'x') {
+                return CODE_X;
+            }
+            if (c == 'M' || c == 'm') {
+                return CODE_M;
+            }
+        } else if (length == 2 && text.charAt(from) == '1' && text.charAt(from + 1) == '0') {
+            return 10;
+        }
+        return INVALID_SCORE;
+    }
+
+    public static int valueOf(int code) {
+        return VALUES[code];
+    }
+
+    public static String labelOf(int code) {
+        return code == CODE_X ? "X" : code == CODE_M ? "M" : String.valueOf(code);
+    }
+}
@@ -0,0 +1,208 @@
+package com.example.sumapp;
+
+// Analyse incrémentale de la saisie des scores ("9, 8, X, M") : la saisie
+// est découpée en champs séparés par des virgules, chacun avec son code.
+// À chaque modification, seuls les champs touchés par la zone modifiée sont
+// relus ; le nombre de flèches, les points et les erreurs sont tenus à jour
+public class ScoreInputParser {
+
+    // Champ vide ou fait d'espaces : ignoré
+    private static final int EMPTY = -2;
+
+    // Champ i : caractères [fieldStart[i], fieldEnd[i]), virgule en fieldEnd[i]
+    // (sauf le dernier). Il y a toujours au moins un champ
+    private int[] fieldStart = new int[16];
+    private int[] fieldEnd = new int[16];
+    private int[] fieldCode = new int[16];
+    private int fieldCount = 1;
+    private int textLength;
+
+    private int arrowCount;
+    private int points;
+    private int invalidCount;
+
+    // Champs relus d'une zone modifiée, avant insertion
+    private int[] newStart = new int[16];
+    private int[] newEnd = new int[16];
+    private int[] newCode = new int[16];
+
+    public ScoreInputParser() {
+        fieldCode[0] = EMPTY;
+    }
+
+    // Relit toute la saisie
+    public void reset(CharSequence text) {
+        fieldCount = 0;
+        arrowCount = 0;
+        points = 0;
+        invalidCount = 0;
+        textLength = text.length();
+        int fields = parseFields(text, 0, textLength);
+        ensureCapacity(fields);
+        System.arraycopy(newStart, 0, fieldStart, 0, fields);
+        System.arraycopy(newEnd, 0, fieldEnd, 0, fields);
+        System.arraycopy(newCode, 0, fieldCode, 0, fields);
+        fieldCount = fields;
+        for (int i = 0; i < fields; i++) {
+            account(fieldCode[i], 1);
+        }
+    }
+
+    // Même signature que TextWatcher.onTextChanged : [start, start + before) de
+    // l'ancienne saisie remplacés par [start, start + count) de "text"
+    public void onTextChanged(CharSequence text, int start, int before, int count) {
+        if (textLength + count - before != text.length() || start + before > textLength) {
+            // Modification manquée : on relit tout
+            reset(text);
+            return;
+        }
+        // Champs de l'ancienne saisie touchés, y compris ceux qui bordent la zone
+        // (la suppression d'une virgule fusionne deux champs)
+        int first = fieldAt(start);
+        int last = fieldAt(start + before);
+        int delta = count - before;
+        int from = fieldStart[first];
+        int to = fieldEnd[last] + delta;
+
+        for (int i = first; i <= last; i++) {
+            account(fieldCode[i], -1);
+        }
+        int fields = parseFields(text, from, to);
+        for (int i = 0; i < fields; i++) {
+            account(newCode[i], 1);
+        }
+
+        // Champs suivants décalés en position et en indice
+        int removed = last - first + 1;
+        int tail = fieldCount - last - 1;
+        ensureCapacity(fieldCount - removed + fields);
+        System.arraycopy(fieldStart, last + 1, fieldStart, first + fields, tail);
+        System.arraycopy(fieldEnd, last + 1, fieldEnd, first + fields, tail);
+        System.arraycopy(fieldCode, last + 1, fieldCode, first + fields, tail);
+        if (delta != 0) {
+            for (int i = first + fields; i < first + fields + tail; i++) {
+                fieldStart[i] += delta;
+                fieldEnd[i] += delta;
+            }
+        }
+        System.arraycopy(newStart, 0, fieldStart, first, fields);
+        System.arraycopy(newEnd, 0, fieldEnd, first, fields);
+        System.arraycopy(newCode, 0, fieldCode, first, fields);
+        fieldCount += fields - removed;
+        textLength = text.length();
+    }
+
+    public int getArrowCount() {
+        return arrowCount;
+    }
+
+    public int getPoints() {
+        return points;
+    }
+
+    public boolean hasInvalidScore() {
+        return invalidCount > 0;
+    }
+
+    // Codes des scores valides, dans l'ordre de saisie ; codes de taille >= getArrowCount()
+    public void copyCodes(int[] codes) {
+        int n = 0;
+        for (int i = 0; i < fieldCount; i++) {
+            if (fieldCode[i] >= 0) {
+                codes[n++] = fieldCode[i];
+            }
+        }
+    }
+
+    // "9, 8, X" : scores valides séparés par des virgules
+    public String describeScores() {
+        StringBuilder text = new StringBuilder(arrowCount * 4);
+        for (int i = 0; i < fieldCount; i++) {
+            if (fieldCode[i] >= 0) {
+                if (text.length() > 0) {
+                    text.append(", ");
+                }
+                text.append(ScoreCodes.labelOf(fieldCode[i]));
+            }
+        }
+        return text.toString();
+    }
+
+    // Dernier champ commençant avant ou à la position "offset"
+    private int fieldAt(int offset) {
+        int low = 0;
+        int high = fieldCount - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (fieldStart[mid] <= offset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    // Découpe [from, to) en champs dans newStart / newEnd / newCode ; renvoie leur nombre
+    private int parseFields(CharSequence text, int from, int to) {
+        int fields = 0;
+        int position = from;
+        while (true) {
+            int end = position;
+            while (end < to && text.charAt(end) != ',') {
+                end++;
+            }
+            if (fields == newStart.length) {
+                newStart = grow(newStart);
+                newEnd = grow(newEnd);
+                newCode = grow(newCode);
+            }
+            newStart[fields] = position;
+            newEnd[fields] = end;
+            newCode[fields] = parseField(text, position, end);
+            fields++;
+            if (end == to) {
+                return fields;
+            }
+            position = end + 1;
+        }
+    }
+
+    private static int parseField(CharSequence text, int from, int to) {
+        while (from < to && Character.isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        while (to > from && Character.isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        return from == to ? EMPTY : ScoreCodes.parseScore(text, from, to);
+    }
+
+    private void account(int code, int sign) {
+        if (code >= 0) {
+            arrowCount += sign;
+            points += sign * ScoreCodes.valueOf(code);
+        } else if (code == ScoreCodes.INVALID_SCORE) {
+            invalidCount += sign;
+        }
+    }
+
+    private void ensureCapacity(int fields) {
+        if (fields > fieldStart.length) {
+            int size = Math.max(fields, fieldStart.length * 2);
+            fieldStart = copyOf(fieldStart, size);
+            fieldEnd = copyOf(fieldEnd, size);
+            fieldCode = copyOf(fieldCode, size);
+        }
+    }
+
+    private static int[] grow(int[] values) {
+        return copyOf(values, values.length * 2);
+    }
+
+    private static int[] copyOf(int[] values, int size) {
+        int[] copy = new int[size];
+        System.arraycopy(values, 0, copy, 0, values.length);
+        return copy;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class ArrowRangeIndexTest {
+
+    // Référence : un tableau simple des jours BASE..BASE + SPAN - 1
+    private static final int BASE = DateCodec.toEpochDay(2020, 1, 1);
+    private static final int SPAN = 1500;
+
+    private static long bruteSum(int[] counts, int fromDay, int toDay) {
+        long sum = 0;
+        for (int day = Math.max(fromDay, BASE); day <= toDay && day < BASE + SPAN; day++) {
+            sum += counts[day - BASE];
+        }
+        return sum;
+    }
+
+    private static void assertMatches(int[] counts, ArrowRangeIndex index, Random random) {
+        for (int day = BASE; day < BASE + SPAN; day++) {
+            assertEquals(counts[day - BASE], index.get(day));
+        }
+        for (int query = 0; query < 300; query++) {
+            // Bornes parfois hors de l'index, ou inversées
+            int from = BASE - 50 + random.nextInt(SPAN + 100);
+            int to = BASE - 50 + random.nextInt(SPAN + 100);
+            assertEquals(bruteSum(counts, from, to), index.sum(from, to));
+        }
+    }
+
+    @Test
+    public void buildMatchesBruteForce() {
+        Random random = new Random(1);
+        int[] counts = new int[SPAN];
+        DayHistory history = new DayHistory();
+        for (int i = 0; i < SPAN; i++) {
+            if (random.nextInt(3) == 0) {
+                counts[i] = 1 + random.nextInt(300);
+                history.append(BASE + i, counts[i]);
+            }
+        }
+        assertMatches(counts, ArrowRangeIndex.build(history), random);
+    }
+
+    @Test
+    public void randomSetsMatchBruteForce() {
+        Random random = new Random(2);
+        int[] counts = new int[SPAN];
+        ArrowRangeIndex index = new ArrowRangeIndex();
+        // Premier jour au milieu : l'index s'étend vers le passé et vers l'avenir
+        for (int step = 0; step < 5000; step++) {
+            int day = BASE + (step == 0 ? SPAN / 2 : random.nextInt(SPAN));
+            int count = random.nextInt(4) == 0 ? 0 : random.nextInt(300);
+            counts[day - BASE] = count;
+            index.set(day, count);
+            if (step % 1000 == 0) {
+                assertMatches(counts, index, random);
+            }
+        }
+        assertMatches(counts, index, random);
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        ArrowRangeIndex index = new ArrowRangeIndex();
+        index.set(BASE, 10);
+        index.set(BASE + 5, 20);
+        ArrowRangeIndex copy = index.copy();
+        copy.set(BASE + 5, 1);
+        copy.set(BASE + 1000, 7);
+        assertEquals(30, index.sum(BASE, BASE + 2000));
+        assertEquals(18, copy.sum(BASE, BASE + 2000));
+    }
+
+    @Test
+    public void emptyIndex() {
+        ArrowRangeIndex index = new ArrowRangeIndex();
+        assertEquals(0, index.get(BASE));
+        assertEquals(0, index.sum(Integer.MIN_VALUE, Integer.MAX_VALUE));
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class CsvEncoderTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void writesDisplayDatesAndCounts() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvEncoder encoder = new CsvEncoder();
+        encoder.reset(out);
+        encoder.writeHeader("Date,Flèches");
+        encoder.writeRow(DateCodec.toEpochDay(2024, 2, 29), 120);
+        encoder.writeRow(DateCodec.toEpochDay(987, 1, 5), 0);
+        encoder.writeRow(0, -15);
+        encoder.writeRow(DateCodec.toEpochDay(2024, 12, 31), Integer.MAX_VALUE);
+        encoder.writeRow(DateCodec.toEpochDay(2024, 12, 31), Integer.MIN_VALUE);
+        encoder.flush();
+        assertEquals("Date,Flèches\n29/02/2024,120\n05/01/0987,0\n01/01/1970,-15\n"
+                + "31/12/2024,2147483647\n31/12/2024,-2147483648\n", new String(out.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void encoderIsReusable() throws IOException {
+        CsvEncoder encoder = new CsvEncoder();
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        encoder.reset(first);
+        encoder.writeRow(1, 1);
+        encoder.flush();
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        encoder.reset(second);
+        encoder.writeRow(2, 2);
+        encoder.flush();
+        assertEquals("02/01/1970,1\n", new String(first.toByteArray(), UTF_8));
+        assertEquals("03/01/1970,2\n", new String(second.toByteArray(), UTF_8));
+    }
+
+    @Test
+    public void roundTripThroughImporter() throws IOException {
+        // Assez de lignes pour vider le tampon plusieurs fois
+        Random random = new Random(9);
+        DayHistory history = new DayHistory();
+        int day = DateCodec.toEpochDay(2000, 1, 1);
+        for (int i = 0; i < 20000; i++) {
+            day += 1 + random.nextInt(3);
+            history.append(day, 1 + random.nextInt(1000));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CsvEncoder encoder = new CsvEncoder();
+        encoder.reset(out);
+        encoder.writeHeader("Date,Flèches");
+        for (int i = 0; i < history.size(); i++) {
+            encoder.writeRow(history.dayAt(i), history.countAt(i));
+        }
+        encoder.flush();
+
+        StringBuilder text = new StringBuilder("Date,Flèches\n");
+        for (int i = 0; i < history.size(); i++) {
+            text.append(DateCodec.formatDisplay(history.dayAt(i))).append(',').append(history.countAt(i)).append('\n');
+        }
+        assertEquals(text.toString(), new String(out.toByteArray(), UTF_8));
+
+        CsvImporter importer = new CsvImporter(null);
+        DayHistory imported = importer.importData(new ByteArrayInputStream(out.toByteArray()), out.size());
+        assertEquals(0, importer.getSkippedRows());
+        assertEquals(history.size(), imported.size());
+        for (int i = 0; i < history.size(); i++) {
+            assertEquals(history.dayAt(i), imported.dayAt(i));
+            assertEquals(history.countAt(i), imported.countAt(i));
+        }
+    }
+}
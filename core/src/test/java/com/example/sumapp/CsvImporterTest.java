@@ -0,0 +1,176 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CsvImporterTest {
+
+    private static DayHistory importText(String text) throws IOException {
+        return importStream(new ByteArrayInputStream(text.getBytes(Charset.forName("UTF-8"))));
+    }
+
+    private static DayHistory importStream(InputStream input) throws IOException {
+        return new CsvImporter(null).importData(input, -1);
+    }
+
+    private static int day(int year, int month, int dayOfMonth) {
+        return DateCodec.toEpochDay(year, month, dayOfMonth);
+    }
+
+    // Flux qui rend peu d'octets à chaque lecture : lignes et caractères UTF-8
+    // coupés entre deux lectures
+    private static class TrickleInputStream extends InputStream {
+        private final byte[] data;
+        private final Random random = new Random(7);
+        private int position;
+
+        TrickleInputStream(byte[] data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return position < data.length ? data[position++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            if (position >= data.length) {
+                return -1;
+            }
+            int count = Math.min(Math.min(length, 1 + random.nextInt(3)), data.length - position);
+            System.arraycopy(data, position, buffer, offset, count);
+            position += count;
+            return count;
+        }
+    }
+
+    @Test
+    public void headerAndBomAreSkipped() throws IOException {
+        CsvImporter importer = new CsvImporter(null);
+        String text = "\uFEFFDate,Flèches\n2024-01-02,30\n2024-01-03,40\n";
+        DayHistory history = importer.importData(
+                new ByteArrayInputStream(text.getBytes(Charset.forName("UTF-8"))), text.length());
+        assertEquals(2, history.size());
+        assertEquals(30, history.get(day(2024, 1, 2), 0));
+        assertEquals(40, history.get(day(2024, 1, 3), 0));
+        assertEquals(2, importer.getImportedRows());
+        assertEquals(0, importer.getSkippedRows());
+    }
+
+    @Test
+    public void firstLineIsDataWithoutHeader() throws IOException {
+        DayHistory history = importText("\uFEFF02/01/2024,30\r\n03/01/2024,40");
+        assertEquals(2, history.size());
+        assertEquals(30, history.get(day(2024, 1, 2), 0));
+        assertEquals(40, history.get(day(2024, 1, 3), 0));
+    }
+
+    @Test
+    public void invalidRowsAreSkipped() throws IOException {
+        CsvImporter importer = new CsvImporter(null);
+        String text = "date,count\n2024-01-02,30\n\n2024-02-30,10\nabc\n2024-01-04,x\n 2024-01-05 , \"12\" ,note\n";
+        DayHistory history = importer.importData(
+                new ByteArrayInputStream(text.getBytes(Charset.forName("UTF-8"))), -1);
+        assertEquals(2, history.size());
+        assertEquals(12, history.get(day(2024, 1, 5), 0));
+        assertEquals(2, importer.getImportedRows());
+        // Ligne vide non comptée ; date impossible, texte et nombre illisible comptés
+        assertEquals(3, importer.getSkippedRows());
+    }
+
+    @Test
+    public void monthFirstDatesAreDetected() throws IOException {
+        // 01/13 ne peut être que mois/jour : les lignes précédentes suivent ce format
+        DayHistory history = importText("01/02/2024,5\n01/13/2024,6\n");
+        assertEquals(5, history.get(day(2024, 1, 2), 0));
+        assertEquals(6, history.get(day(2024, 1, 13), 0));
+    }
+
+    @Test
+    public void ambiguousDatesAreDayFirst() throws IOException {
+        DayHistory history = importText("01/02/2024,5\n03/04/2024,6\n");
+        assertEquals(5, history.get(day(2024, 2, 1), 0));
+        assertEquals(6, history.get(day(2024, 4, 3), 0));
+    }
+
+    @Test
+    public void duplicateDaysKeepLastLine() throws IOException {
+        DayHistory history = importText("2024-01-03,1\n2024-01-02,2\n2024-01-03,3\n2024-01-02,4\n");
+        assertEquals(2, history.size());
+        assertEquals(4, history.get(day(2024, 1, 2), 0));
+        assertEquals(3, history.get(day(2024, 1, 3), 0));
+    }
+
+    @Test
+    public void duplicateDaysKeepLastLineAcrossDetection() throws IOException {
+        // Ligne 1 ambiguë (en attente), ligne 2 ISO ajoutée avant elle, puis la
+        // ligne 3 tranche le format : la ligne 2 reste la plus tardive pour le 2 janvier
+        DayHistory history = importText("02/01/2024,10\n2024-01-02,20\n13/01/2024,30\n");
+        assertEquals(20, history.get(day(2024, 1, 2), 0));
+        assertEquals(30, history.get(day(2024, 1, 13), 0));
+
+        history = importText("2024-01-02,20\n02/01/2024,10\n13/01/2024,30\n");
+        assertEquals(10, history.get(day(2024, 1, 2), 0));
+    }
+
+    @Test
+    public void splitReadsMatchSingleRead() throws IOException {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder("Date,Flèches\n");
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int line = 0; line < 5000; line++) {
+            int day = day(2020, 1, 1) + random.nextInt(2000);
+            int count = random.nextInt(500);
+            text.append(DateCodec.formatIso(day)).append(',').append(count);
+            // Colonnes en plus, certaines avec des caractères sur plusieurs octets
+            if (random.nextInt(4) == 0) {
+                text.append(",séance à l'extérieur");
+            }
+            text.append(random.nextBoolean() ? "\n" : "\r\n");
+            expected.put(day, count);
+        }
+        byte[] data = text.toString().getBytes(Charset.forName("UTF-8"));
+
+        assertHistory(expected, importStream(new ByteArrayInputStream(data)));
+        assertHistory(expected, importStream(new TrickleInputStream(data)));
+    }
+
+    @Test
+    public void lineLongerThanBuffer() throws IOException {
+        StringBuilder text = new StringBuilder("2024-01-02,7,");
+        for (int i = 0; i < 40 * 1024; i++) {
+            text.append('x');
+        }
+        text.append("\n2024-01-03,8\n");
+        DayHistory history = importText(text.toString());
+        assertEquals(7, history.get(day(2024, 1, 2), 0));
+        assertEquals(8, history.get(day(2024, 1, 3), 0));
+    }
+
+    @Test
+    public void cancelledImportReturnsNull() throws IOException {
+        CsvImporter importer = new CsvImporter(null);
+        importer.cancel();
+        assertNull(importer.importData(new ByteArrayInputStream(new byte[]{'1'}), 1));
+    }
+
+    private static void assertHistory(TreeMap<Integer, Integer> expected, DayHistory history) {
+        assertEquals(expected.size(), history.size());
+        int i = 0;
+        for (java.util.Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getKey(), history.dayAt(i));
+            assertEquals((int) entry.getValue(), history.countAt(i));
+            i++;
+        }
+    }
+}
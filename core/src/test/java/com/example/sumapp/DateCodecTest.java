@@ -0,0 +1,113 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DateCodecTest {
+
+    // Du 01/01/1600 au 31/12/2400 : siècles bissextiles ou non, et jours négatifs
+    private static final int FIRST_DAY = DateCodec.toEpochDay(1600, 1, 1);
+    private static final int LAST_DAY = DateCodec.toEpochDay(2400, 12, 31);
+
+    @Test
+    public void epochDayMatchesGregorianCalendar() {
+        GregorianCalendar calendar = new GregorianCalendar(TimeZone.getTimeZone("UTC"));
+        // Grégorien proleptique, comme DateCodec
+        calendar.setGregorianChange(new java.util.Date(Long.MIN_VALUE));
+        calendar.clear();
+        calendar.set(1600, Calendar.JANUARY, 1);
+        for (int day = FIRST_DAY; day <= LAST_DAY; day++) {
+            int year = calendar.get(Calendar.YEAR);
+            int month = calendar.get(Calendar.MONTH) + 1;
+            int dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
+            assertEquals(day, DateCodec.toEpochDay(year, month, dayOfMonth));
+            assertEquals(year, DateCodec.yearOf(day));
+            assertEquals(month, DateCodec.monthOf(day));
+            assertEquals(dayOfMonth, DateCodec.dayOfMonth(day));
+            // Calendar : dimanche = 1 ; DateCodec : lundi = 0
+            assertEquals((calendar.get(Calendar.DAY_OF_WEEK) + 5) % 7, DateCodec.dayOfWeek(day));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    @Test
+    public void formatAndParseRoundTrip() {
+        for (int day = DateCodec.toEpochDay(1000, 1, 1); day <= LAST_DAY; day++) {
+            assertEquals(day, DateCodec.parseIso(DateCodec.formatIso(day)));
+            assertEquals(day, DateCodec.parseDisplay(DateCodec.formatDisplay(day)));
+            assertEquals(day, DateCodec.parseShort(DateCodec.formatShort(day), DateCodec.yearOf(day)));
+        }
+    }
+
+    @Test
+    public void cachedRangeRoundTrip() {
+        // Autour d'aujourd'hui, les chaînes viennent de la table : deux passages
+        int today = DateCodec.today();
+        for (int pass = 0; pass < 2; pass++) {
+            for (int day = today - 5 * 366; day <= today + 2 * 366; day++) {
+                assertEquals(day, DateCodec.parseIso(DateCodec.formatIso(day)));
+                assertEquals(day, DateCodec.parseDisplay(DateCodec.formatDisplay(day)));
+            }
+        }
+    }
+
+    @Test
+    public void knownDates() {
+        assertEquals(0, DateCodec.parseIso("1970-01-01"));
+        assertEquals("1970-01-01", DateCodec.formatIso(0));
+        assertEquals("31/12/1969", DateCodec.formatDisplay(-1));
+        assertEquals("29/02", DateCodec.formatShort(DateCodec.toEpochDay(2024, 2, 29)));
+        assertEquals(19782, DateCodec.parseDisplay("29/02/2024"));
+        assertEquals(3, DateCodec.dayOfWeek(0));
+    }
+
+    @Test
+    public void invalidDates() {
+        assertEquals(DateCodec.INVALID_DAY, DateCodec.parseIso(null));
+        assertEquals(DateCodec.INVALID_DAY, DateCodec.parseIso("2023-02-29"));
+        assertEquals(DateCodec.INVALID_DAY, DateCodec.parseIso("2023-13-01"));
+        assertEquals(DateCodec.INVALID_DAY, DateCodec.parseIso("2023-1-01"));
+        assertEquals(DateCodec.INVALID_DAY, DateCodec.parseIso("2023-01-0a"));
+        assertEquals(DateCodec.INVALID_DAY, DateCodec.parseDisplay("31/04/2024"));
+        assertEquals(DateCodec.INVALID_DAY, DateCodec.parseDisplay("2024-01-01"));
+        assertEquals(DateCodec.INVALID_DAY, DateCodec.parseShort("29/02", 2023));
+        assertEquals(DateCodec.toEpochDay(2024, 2, 29), DateCodec.parseShort("29/02", 2024));
+    }
+
+    @Test
+    public void leapYears() {
+        assertTrue(DateCodec.isLeapYear(2000));
+        assertTrue(DateCodec.isLeapYear(2024));
+        assertFalse(DateCodec.isLeapYear(1900));
+        assertFalse(DateCodec.isLeapYear(2023));
+        assertEquals(29, DateCodec.daysInMonth(2000, 2));
+        assertEquals(28, DateCodec.daysInMonth(2100, 2));
+    }
+
+    @Test
+    public void periodBounds() {
+        for (int day = DateCodec.toEpochDay(1999, 1, 1); day <= DateCodec.toEpochDay(2030, 12, 31); day++) {
+            int week = DateCodec.startOfWeek(day);
+            assertEquals(0, DateCodec.dayOfWeek(week));
+            assertTrue(week <= day && day < week + 7);
+
+            int monthStart = DateCodec.startOfMonth(day);
+            int monthEnd = DateCodec.endOfMonth(day);
+            assertEquals(1, DateCodec.dayOfMonth(monthStart));
+            assertEquals(DateCodec.monthOf(day), DateCodec.monthOf(monthEnd));
+            assertEquals(1, DateCodec.dayOfMonth(monthEnd + 1));
+            assertEquals(monthEnd + 1, DateCodec.addMonths(day, 1));
+            assertEquals(DateCodec.startOfMonth(monthStart - 1), DateCodec.addMonths(day, -1));
+
+            assertEquals(DateCodec.toEpochDay(DateCodec.yearOf(day), 1, 1), DateCodec.startOfYear(day));
+            assertEquals(DateCodec.endOfYear(day) + 1, DateCodec.addYears(day, 1));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DayHistoryTest {
+
+    private static void assertMatches(TreeMap<Integer, Integer> expected, DayHistory history) {
+        assertEquals(expected.size(), history.size());
+        assertEquals(expected.isEmpty(), history.isEmpty());
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getKey(), history.dayAt(i));
+            assertEquals((int) entry.getValue(), history.countAt(i));
+            i++;
+        }
+        if (!expected.isEmpty()) {
+            assertEquals((int) expected.firstKey(), history.firstDay());
+            assertEquals((int) expected.lastKey(), history.lastDay());
+        }
+    }
+
+    @Test
+    public void randomOperationsMatchTreeMap() {
+        Random random = new Random(4);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        DayHistory history = new DayHistory(1);
+        for (int step = 0; step < 20000; step++) {
+            int day = random.nextInt(500) - 100;
+            int count = random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                    Integer old = expected.put(day, count);
+                    assertEquals(old == null || old != count, history.put(day, count));
+                    break;
+                case 1:
+                    // Ajout en fin, ou remplacement si le jour n'est pas après le dernier
+                    expected.put(day, count);
+                    history.append(day, count);
+                    break;
+                case 2:
+                    assertEquals(expected.remove(day) != null, history.remove(day));
+                    break;
+                default:
+                    Integer value = expected.get(day);
+                    assertEquals(value == null ? -1 : value, history.get(day, -1));
+                    assertEquals(value != null, history.contains(day));
+                    assertEquals(expected.headMap(day).size(), history.lowerBound(day));
+                    int index = history.indexOf(day);
+                    assertEquals(value == null ? -expected.headMap(day).size() - 1 : expected.headMap(day).size(), index);
+                    break;
+            }
+            if (step % 1000 == 0) {
+                assertMatches(expected, history);
+            }
+        }
+        assertMatches(expected, history);
+    }
+
+    @Test
+    public void forEachInRangeVisitsInclusiveRange() {
+        DayHistory history = new DayHistory();
+        for (int day = 0; day < 50; day += 5) {
+            history.append(day, day * 2);
+        }
+        final StringBuilder visited = new StringBuilder();
+        history.forEachInRange(10, 25, new DayHistory.DayVisitor() {
+            @Override
+            public void visit(int day, int count) {
+                visited.append(day).append('=').append(count).append(' ');
+            }
+        });
+        assertEquals("10=20 15=30 20=40 25=50 ", visited.toString());
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        DayHistory history = new DayHistory();
+        history.append(1, 10);
+        history.append(2, 20);
+        DayHistory copy = history.copy();
+        copy.put(1, 11);
+        copy.remove(2);
+        copy.append(3, 30);
+        assertEquals(10, history.get(1, 0));
+        assertTrue(history.contains(2));
+        assertFalse(history.contains(3));
+        assertEquals(2, copy.size());
+    }
+
+    @Test
+    public void clearEmptiesHistory() {
+        DayHistory history = new DayHistory();
+        history.append(1, 10);
+        history.clear();
+        assertTrue(history.isEmpty());
+        history.append(0, 5);
+        assertEquals(0, history.firstDay());
+    }
+}
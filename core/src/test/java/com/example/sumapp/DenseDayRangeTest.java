@@ -0,0 +1,40 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class DenseDayRangeTest {
+
+    @Test
+    public void missingDaysReadAsZero() {
+        DayHistory history = new DayHistory();
+        history.append(10, 1);
+        history.append(12, 3);
+        history.append(20, 9);
+        DaySeries range = new DenseDayRange(history, 9, 13);
+        assertEquals(5, range.size());
+        int[] expected = {0, 1, 0, 3, 0};
+        for (int i = 0; i < range.size(); i++) {
+            assertEquals(9 + i, range.dayAt(i));
+            assertEquals(expected[i], range.countAt(i));
+        }
+    }
+
+    @Test
+    public void emptyRange() {
+        DayHistory history = new DayHistory();
+        history.append(10, 1);
+        assertEquals(0, new DenseDayRange(history, 11, 10).size());
+        assertEquals(1, new DenseDayRange(history, 10, 10).size());
+        assertEquals(0, new DenseDayRange(new DayHistory(), 0, 3).countAt(2));
+    }
+
+    @Test
+    public void readsHistoryWithoutCopy() {
+        DayHistory history = new DayHistory();
+        DaySeries range = new DenseDayRange(history, 0, 6);
+        history.put(3, 7);
+        assertEquals(7, range.countAt(3));
+    }
+}
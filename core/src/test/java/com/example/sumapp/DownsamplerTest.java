@@ -0,0 +1,142 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DownsamplerTest {
+
+    private static DayHistory series(int[] counts) {
+        DayHistory history = new DayHistory(counts.length);
+        for (int i = 0; i < counts.length; i++) {
+            history.append(i, counts[i]);
+        }
+        return history;
+    }
+
+    // Seaux de même taille (à un point près) couvrant [from + 1, to - 1)
+    private static int bucketStart(int from, int count, int threshold, int bucket) {
+        return from + 1 + (int) ((long) bucket * (count - 2) / (threshold - 2));
+    }
+
+    private static double area(DaySeries data, int a, int j, double avgX, double avgY) {
+        return Math.abs((a - avgX) * (data.countAt(j) - data.countAt(a)) - (a - j) * (avgY - data.countAt(a)));
+    }
+
+    @Test
+    public void smallRangesAreKept() {
+        DayHistory data = series(new int[]{5, 1, 4, 2, 3});
+        assertArrayEquals(new int[]{1, 2, 3}, Downsampler.lttb(data, 1, 4, 3));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, Downsampler.lttb(data, 0, 5, 5));
+        // Budget inférieur à 3 : pas de réduction possible
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, Downsampler.lttb(data, 0, 5, 2));
+        assertEquals(0, Downsampler.lttb(data, 3, 3, 10).length);
+        assertEquals(0, Downsampler.lttb(data, 4, 2, 10).length);
+    }
+
+    @Test
+    public void bucketsAndEndpoints() {
+        Random random = new Random(12);
+        for (int round = 0; round < 500; round++) {
+            int[] counts = new int[10 + random.nextInt(400)];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = random.nextInt(200);
+            }
+            DayHistory data = series(counts);
+            int from = random.nextInt(counts.length / 2);
+            int to = counts.length - random.nextInt(counts.length / 2);
+            int count = to - from;
+            int threshold = 3 + random.nextInt(Math.max(1, count - 3));
+            int[] sampled = Downsampler.lttb(data, from, to, threshold);
+
+            if (count <= threshold) {
+                assertEquals(count, sampled.length);
+                continue;
+            }
+            assertEquals(threshold, sampled.length);
+            // Premier et dernier point toujours gardés
+            assertEquals(from, sampled[0]);
+            assertEquals(to - 1, sampled[threshold - 1]);
+
+            // Point intérieur i : dans son seau, et plus grand triangle avec le
+            // point retenu précédent et la moyenne du seau suivant (dernier point compris)
+            for (int i = 0; i < threshold - 2; i++) {
+                int bucketStart = bucketStart(from, count, threshold, i);
+                int bucketEnd = bucketStart(from, count, threshold, i + 1);
+                int point = sampled[i + 1];
+                assertTrue(point >= bucketStart && point < bucketEnd);
+                assertTrue(point > sampled[i]);
+
+                int nextStart = bucketEnd;
+                int nextEnd = Math.min(bucketStart(from, count, threshold, i + 2), to);
+                assertTrue(nextStart < nextEnd);
+                double avgX = 0;
+                double avgY = 0;
+                for (int j = nextStart; j < nextEnd; j++) {
+                    avgX += j;
+                    avgY += counts[j];
+                }
+                avgX /= nextEnd - nextStart;
+                avgY /= nextEnd - nextStart;
+                double best = area(data, sampled[i], point, avgX, avgY);
+                for (int j = bucketStart; j < bucketEnd; j++) {
+                    assertTrue(area(data, sampled[i], j, avgX, avgY) <= best);
+                }
+            }
+            // Le dernier seau intérieur s'arrête juste avant le dernier point
+            assertEquals(to - 1, bucketStart(from, count, threshold, threshold - 2));
+        }
+    }
+
+    @Test
+    public void isolatedPeakIsKept() {
+        int[] counts = new int[1000];
+        counts[637] = 500;
+        int[] sampled = Downsampler.lttb(series(counts), 0, counts.length, 50);
+        boolean found = false;
+        for (int index : sampled) {
+            found |= index == 637;
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    public void denseRangeInput() {
+        DayHistory history = new DayHistory();
+        history.append(100, 7);
+        history.append(180, 9);
+        DaySeries range = new DenseDayRange(history, 90, 189);
+        int[] sampled = Downsampler.lttb(range, 0, range.size(), 20);
+        assertEquals(20, sampled.length);
+        assertEquals(0, sampled[0]);
+        assertEquals(99, sampled[19]);
+    }
+
+    @Test
+    public void bucketSize() {
+        assertEquals(1, Downsampler.bucketSize(100, 100));
+        assertEquals(1, Downsampler.bucketSize(100, 0));
+        assertEquals(2, Downsampler.bucketSize(101, 100));
+        assertEquals(4, Downsampler.bucketSize(365, 100));
+        for (int count = 1; count < 2000; count += 7) {
+            for (int budget = 1; budget < 300; budget += 13) {
+                int size = Downsampler.bucketSize(count, budget);
+                // Au plus "budget" barres, et pas de barre inutilement large
+                assertTrue((count + size - 1) / size <= budget);
+                assertTrue(size == 1 || (count + size - 2) / (size - 1) > budget);
+            }
+        }
+    }
+
+    @Test
+    public void maxCount() {
+        DayHistory data = series(new int[]{3, 9, 2, 7});
+        assertEquals(9, Downsampler.maxCount(data, 0, 4));
+        assertEquals(7, Downsampler.maxCount(data, 2, 4));
+        assertEquals(0, Downsampler.maxCount(data, 2, 2));
+    }
+}
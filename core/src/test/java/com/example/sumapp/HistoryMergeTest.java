@@ -0,0 +1,179 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class HistoryMergeTest {
+
+    private static DayHistory history(int... dayCountPairs) {
+        DayHistory history = new DayHistory();
+        for (int i = 0; i < dayCountPairs.length; i += 2) {
+            history.append(dayCountPairs[i], dayCountPairs[i + 1]);
+        }
+        return history;
+    }
+
+    private static DayHistory merge(DayHistory existing, DayHistory incoming, int strategy, boolean keepZeroDays) {
+        DayHistory merged = new DayHistory();
+        HistoryMerge.merge(existing, incoming, strategy, keepZeroDays, merged, new HistoryMerge.Preview());
+        return merged;
+    }
+
+    private static void assertHistory(DayHistory actual, int... dayCountPairs) {
+        assertEquals(dayCountPairs.length / 2, actual.size());
+        for (int i = 0; i < dayCountPairs.length; i += 2) {
+            assertEquals(dayCountPairs[i], actual.dayAt(i / 2));
+            assertEquals(dayCountPairs[i + 1], actual.countAt(i / 2));
+        }
+    }
+
+    @Test
+    public void strategies() {
+        DayHistory existing = history(1, 10, 2, 20, 4, 40);
+        DayHistory incoming = history(2, 5, 3, 30, 4, 50);
+        assertHistory(merge(existing, incoming, HistoryMerge.REPLACE, false), 1, 10, 2, 5, 3, 30, 4, 50);
+        assertHistory(merge(existing, incoming, HistoryMerge.SUM, false), 1, 10, 2, 25, 3, 30, 4, 90);
+        assertHistory(merge(existing, incoming, HistoryMerge.MAX, false), 1, 10, 2, 20, 3, 30, 4, 50);
+        assertHistory(merge(existing, incoming, HistoryMerge.KEEP_EXISTING, false), 1, 10, 2, 20, 3, 30, 4, 40);
+    }
+
+    @Test
+    public void sumSaturates() {
+        assertEquals(Integer.MAX_VALUE, HistoryMerge.resolve(HistoryMerge.SUM, Integer.MAX_VALUE, 1));
+        assertEquals(Integer.MIN_VALUE, HistoryMerge.resolve(HistoryMerge.SUM, Integer.MIN_VALUE, -1));
+    }
+
+    @Test
+    public void zeroDays() {
+        DayHistory existing = history(1, 10, 2, 20);
+        DayHistory incoming = history(1, 0, 3, 0);
+        // Historique creux : le jour remis à 0 disparaît, le jour importé à 0 n'est pas ajouté
+        assertHistory(merge(existing, incoming, HistoryMerge.REPLACE, false), 2, 20);
+        // Jours à écrire : les 0 restent pour être supprimés
+        assertHistory(merge(existing, incoming, HistoryMerge.REPLACE, true), 1, 0, 2, 20, 3, 0);
+    }
+
+    @Test
+    public void changesAreReportedInOrder() {
+        DayHistory existing = history(1, 10, 2, 20, 4, 40);
+        DayHistory incoming = history(0, 7, 2, 20, 4, 41, 5, 0);
+        final StringBuilder changes = new StringBuilder();
+        HistoryMerge.merge(existing, incoming, HistoryMerge.REPLACE, false, null, new HistoryMerge.ChangeVisitor() {
+            @Override
+            public void onChange(int day, boolean existed, int oldCount, int newCount) {
+                changes.append(day).append(existed ? '=' : '+').append(oldCount).append('>').append(newCount).append(' ');
+            }
+        });
+        // Jour 2 inchangé, jour 5 importé à 0 ignoré
+        assertEquals("0+0>7 4=40>41 ", changes.toString());
+    }
+
+    @Test
+    public void previewMatchesMerge() {
+        Random random = new Random(3);
+        for (int round = 0; round < 200; round++) {
+            DayHistory existing = randomHistory(random);
+            DayHistory incoming = randomHistory(random);
+            for (int strategy = 0; strategy < HistoryMerge.strategyCount(); strategy++) {
+                TreeMap<Integer, Integer> expected = new TreeMap<>();
+                for (int i = 0; i < existing.size(); i++) {
+                    expected.put(existing.dayAt(i), existing.countAt(i));
+                }
+                int added = 0;
+                int changed = 0;
+                long delta = 0;
+                for (int i = 0; i < incoming.size(); i++) {
+                    int day = incoming.dayAt(i);
+                    Integer old = expected.get(day);
+                    int count = old == null ? incoming.countAt(i)
+                            : HistoryMerge.resolve(strategy, old, incoming.countAt(i));
+                    if (old == null && count != 0) {
+                        added++;
+                    } else if (old != null && count != old) {
+                        changed++;
+                    }
+                    delta += count - (old == null ? 0 : old);
+                    expected.put(day, count);
+                }
+
+                HistoryMerge.Preview preview = HistoryMerge.preview(existing, incoming, strategy);
+                assertEquals(added, preview.getAddedDays());
+                assertEquals(changed, preview.getChangedDays());
+                assertEquals(delta, preview.getArrowDelta());
+                assertEquals(added == 0 && changed == 0, preview.isEmpty());
+
+                DayHistory merged = merge(existing, incoming, strategy, false);
+                int i = 0;
+                for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+                    if (entry.getValue() == 0) {
+                        continue;
+                    }
+                    assertEquals((int) entry.getKey(), merged.dayAt(i));
+                    assertEquals((int) entry.getValue(), merged.countAt(i));
+                    i++;
+                }
+                assertEquals(i, merged.size());
+            }
+        }
+    }
+
+    @Test
+    public void mergeAllLaterHistoryWins() {
+        DayHistory first = history(1, 10, 3, 30, 5, 50);
+        DayHistory second = history(3, 31, 4, 40);
+        DayHistory third = history(1, 11, 3, 32);
+        assertHistory(HistoryMerge.mergeAll(new DayHistory[]{first, second, third}),
+                1, 11, 3, 32, 4, 40, 5, 50);
+        assertHistory(HistoryMerge.mergeAll(new DayHistory[]{third, second, first}),
+                1, 10, 3, 30, 4, 40, 5, 50);
+    }
+
+    @Test
+    public void mergeAllIgnoresNullAndEmpty() {
+        DayHistory only = history(2, 20, 7, 70);
+        assertHistory(HistoryMerge.mergeAll(new DayHistory[]{null, new DayHistory(), only, null}), 2, 20, 7, 70);
+        assertTrue(HistoryMerge.mergeAll(new DayHistory[0]).isEmpty());
+        assertTrue(HistoryMerge.mergeAll(new DayHistory[]{null}).isEmpty());
+    }
+
+    @Test
+    public void mergeAllMatchesSequentialReplace() {
+        Random random = new Random(11);
+        for (int round = 0; round < 100; round++) {
+            DayHistory[] histories = new DayHistory[1 + random.nextInt(6)];
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+            for (int h = 0; h < histories.length; h++) {
+                if (random.nextInt(5) == 0) {
+                    continue;
+                }
+                histories[h] = randomHistory(random);
+                for (int i = 0; i < histories[h].size(); i++) {
+                    expected.put(histories[h].dayAt(i), histories[h].countAt(i));
+                }
+            }
+            DayHistory merged = HistoryMerge.mergeAll(histories);
+            assertEquals(expected.size(), merged.size());
+            int i = 0;
+            for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+                assertEquals((int) entry.getKey(), merged.dayAt(i));
+                assertEquals((int) entry.getValue(), merged.countAt(i));
+                i++;
+            }
+        }
+    }
+
+    private static DayHistory randomHistory(Random random) {
+        DayHistory history = new DayHistory();
+        int size = random.nextInt(40);
+        for (int i = 0; i < size; i++) {
+            history.put(random.nextInt(60), random.nextInt(4) == 0 ? 0 : random.nextInt(200));
+        }
+        return history;
+    }
+}
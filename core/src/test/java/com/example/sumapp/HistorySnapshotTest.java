@@ -0,0 +1,93 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class HistorySnapshotTest {
+
+    private static final int BASE = DateCodec.toEpochDay(2024, 1, 1);
+
+    private static void assertMatches(TreeMap<Integer, Integer> expected, HistorySnapshot snapshot) {
+        assertEquals(expected.size(), snapshot.size());
+        int i = 0;
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            assertEquals((int) entry.getKey(), snapshot.dayAt(i));
+            assertEquals((int) entry.getValue(), snapshot.countAt(i));
+            assertEquals(i, snapshot.indexOf(entry.getKey()));
+            i++;
+        }
+        DayHistory history = snapshot.history();
+        assertEquals(expected.size(), history.size());
+        for (int from = BASE - 3; from < BASE + 300; from += 7) {
+            int to = from + 40;
+            int sum = 0;
+            for (int count : expected.subMap(from, true, to, true).values()) {
+                sum += count;
+            }
+            assertEquals(sum, snapshot.sumArrows(from, to));
+        }
+        PeriodRollups rollups = PeriodRollups.build(history);
+        for (int key = PeriodRollups.keyOf(PeriodRollups.WEEK, BASE);
+             key <= PeriodRollups.keyOf(PeriodRollups.WEEK, BASE + 300); key++) {
+            assertEquals(rollups.total(PeriodRollups.WEEK, key), snapshot.getRollups().total(PeriodRollups.WEEK, key));
+            assertEquals(rollups.maxCount(PeriodRollups.WEEK, key),
+                    snapshot.getRollups().maxCount(PeriodRollups.WEEK, key));
+        }
+    }
+
+    @Test
+    public void unchangedDayKeepsSnapshot() {
+        DayHistory history = new DayHistory();
+        history.append(BASE, 10);
+        HistorySnapshot snapshot = HistorySnapshot.of(history);
+        assertSame(snapshot, snapshot.withDay(BASE, 10));
+        assertSame(snapshot, snapshot.withDay(BASE + 1, 0));
+        HistorySnapshot next = snapshot.withDay(BASE + 1, 5);
+        assertEquals(1, next.getVersion());
+        assertSame(next, next.withDay(BASE + 1, 5));
+    }
+
+    @Test
+    public void liveDayAndPastDaysMatchBruteForce() {
+        Random random = new Random(9);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        DayHistory history = new DayHistory();
+        for (int day = BASE; day < BASE + 60; day += 1 + random.nextInt(3)) {
+            int count = 1 + random.nextInt(100);
+            history.append(day, count);
+            expected.put(day, count);
+        }
+        HistorySnapshot snapshot = HistorySnapshot.of(history);
+        int today = BASE + 60;
+        for (int step = 0; step < 2000; step++) {
+            int choice = random.nextInt(10);
+            int day;
+            if (choice < 6) {
+                // Compteur en direct
+                day = today;
+            } else if (choice < 7) {
+                // Passage au jour suivant
+                day = ++today;
+            } else {
+                day = BASE + random.nextInt(today - BASE + 1);
+            }
+            int count = random.nextInt(5) == 0 ? 0 : random.nextInt(150);
+            snapshot = snapshot.withDay(day, count);
+            if (count == 0) {
+                expected.remove(day);
+            } else {
+                expected.put(day, count);
+            }
+            if (step % 50 == 0) {
+                assertMatches(expected, snapshot);
+            }
+        }
+        assertMatches(expected, snapshot);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class PeriodRollupsTest {
+
+    private static final int BASE = DateCodec.toEpochDay(2022, 11, 20);
+    private static final int SPAN = 900;
+
+    // Compare chaque semaine, mois et année de la plage à un parcours complet
+    private static void assertMatches(DayHistory history, PeriodRollups rollups) {
+        for (int unit = PeriodRollups.WEEK; unit <= PeriodRollups.YEAR; unit++) {
+            int firstKey = PeriodRollups.keyOf(unit, BASE) - 1;
+            int lastKey = PeriodRollups.keyOf(unit, BASE + SPAN) + 1;
+            for (int key = firstKey; key <= lastKey; key++) {
+                long total = 0;
+                int active = 0;
+                int max = 0;
+                for (int i = 0; i < history.size(); i++) {
+                    int day = history.dayAt(i);
+                    if (PeriodRollups.keyOf(unit, day) != key) {
+                        continue;
+                    }
+                    int count = history.countAt(i);
+                    total += count;
+                    if (count > 0) {
+                        active++;
+                    }
+                    max = Math.max(max, count);
+                }
+                assertEquals(total, rollups.total(unit, key));
+                assertEquals(active, rollups.activeDays(unit, key));
+                assertEquals(max, rollups.maxCount(unit, key));
+            }
+        }
+    }
+
+    @Test
+    public void periodKeysAndBounds() {
+        for (int day = BASE - 400; day <= BASE + SPAN; day++) {
+            for (int unit = PeriodRollups.WEEK; unit <= PeriodRollups.YEAR; unit++) {
+                int key = PeriodRollups.keyOf(unit, day);
+                assertEquals(true, PeriodRollups.firstDayOf(unit, key) <= day);
+                assertEquals(true, day <= PeriodRollups.lastDayOf(unit, key));
+            }
+            assertEquals(DateCodec.startOfWeek(day), PeriodRollups.firstDayOf(PeriodRollups.WEEK,
+                    PeriodRollups.keyOf(PeriodRollups.WEEK, day)));
+            assertEquals(DateCodec.startOfMonth(day), PeriodRollups.firstDayOf(PeriodRollups.MONTH,
+                    PeriodRollups.keyOf(PeriodRollups.MONTH, day)));
+            assertEquals(DateCodec.endOfYear(day), PeriodRollups.lastDayOf(PeriodRollups.YEAR,
+                    PeriodRollups.keyOf(PeriodRollups.YEAR, day)));
+        }
+        // Semaines avant le 29/12/1969
+        assertEquals(-1, PeriodRollups.keyOf(PeriodRollups.WEEK, -4));
+        assertEquals(0, PeriodRollups.keyOf(PeriodRollups.WEEK, -3));
+    }
+
+    @Test
+    public void buildMatchesBruteForce() {
+        Random random = new Random(5);
+        DayHistory history = new DayHistory();
+        for (int day = BASE; day < BASE + SPAN; day++) {
+            if (random.nextInt(3) == 0) {
+                history.append(day, 1 + random.nextInt(300));
+            }
+        }
+        assertMatches(history, PeriodRollups.build(history));
+    }
+
+    @Test
+    public void randomUpdatesMatchBruteForce() {
+        Random random = new Random(6);
+        DayHistory history = new DayHistory();
+        PeriodRollups rollups = new PeriodRollups();
+        for (int step = 0; step < 3000; step++) {
+            int day = BASE + random.nextInt(SPAN);
+            int oldCount = history.get(day, 0);
+            // Souvent une baisse du jour : cas où le maximum de la période doit être relu
+            int newCount = random.nextBoolean() && oldCount > 0 ? random.nextInt(oldCount) : random.nextInt(300);
+            if (newCount == 0) {
+                history.remove(day);
+            } else {
+                history.put(day, newCount);
+            }
+            rollups.update(day, oldCount, newCount, history);
+            if (step % 500 == 0) {
+                assertMatches(history, rollups);
+            }
+        }
+        assertMatches(history, rollups);
+    }
+
+    @Test
+    public void maximumLoweredToSecondBest() {
+        DayHistory history = new DayHistory();
+        history.append(BASE, 50);
+        history.append(BASE + 1, 80);
+        PeriodRollups rollups = PeriodRollups.build(history);
+        history.put(BASE + 1, 10);
+        rollups.update(BASE + 1, 80, 10, history);
+        assertEquals(50, rollups.maxCount(PeriodRollups.YEAR, PeriodRollups.keyOf(PeriodRollups.YEAR, BASE)));
+        assertEquals(60, rollups.total(PeriodRollups.YEAR, PeriodRollups.keyOf(PeriodRollups.YEAR, BASE)));
+    }
+
+    @Test
+    public void copyIsIndependent() {
+        DayHistory history = new DayHistory();
+        history.append(BASE, 50);
+        PeriodRollups rollups = PeriodRollups.build(history);
+        PeriodRollups copy = rollups.copy();
+        DayHistory changed = history.copy();
+        changed.put(BASE + 400, 30);
+        copy.update(BASE + 400, 0, 30, changed);
+        int key = PeriodRollups.keyOf(PeriodRollups.MONTH, BASE + 400);
+        assertEquals(0, rollups.total(PeriodRollups.MONTH, key));
+        assertEquals(30, copy.total(PeriodRollups.MONTH, key));
+        assertMatches(history, rollups);
+        assertMatches(changed, copy);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.sumapp;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScoreInputParserTest {
+
+    private static final String ALPHABET = "0123456789XxMmA ,,,  ";
+
+    // Remplace [start, start + before) par "inserted", comme un EditText, et prévient le parseur
+    private static void edit(ScoreInputParser parser, StringBuilder text, int start, int before, String inserted) {
+        text.replace(start, start + before, inserted);
+        parser.onTextChanged(text, start, before, inserted.length());
+    }
+
+    private static void assertSameAsReset(ScoreInputParser parser, CharSequence text) {
+        ScoreInputParser reference = new ScoreInputParser();
+        reference.reset(text);
+        String message = "\"" + text + "\"";
+        assertEquals(message, reference.getArrowCount(), parser.getArrowCount());
+        assertEquals(message, reference.getPoints(), parser.getPoints());
+        assertEquals(message, reference.hasInvalidScore(), parser.hasInvalidScore());
+        assertEquals(message, reference.describeScores(), parser.describeScores());
+        int[] expected = new int[reference.getArrowCount()];
+        int[] actual = new int[parser.getArrowCount()];
+        reference.copyCodes(expected);
+        parser.copyCodes(actual);
+        assertArrayEquals(message, expected, actual);
+    }
+
+    @Test
+    public void resetParsesFields() {
+        ScoreInputParser parser = new ScoreInputParser();
+        parser.reset(" 9, 8 ,X,m,10,,  ");
+        assertEquals(5, parser.getArrowCount());
+        assertEquals(37, parser.getPoints());
+        assertFalse(parser.hasInvalidScore());
+        assertEquals("9, 8, X, M, 10", parser.describeScores());
+
+        parser.reset("9,11,8");
+        assertEquals(2, parser.getArrowCount());
+        assertTrue(parser.hasInvalidScore());
+    }
+
+    @Test
+    public void typingScores() {
+        ScoreInputParser parser = new ScoreInputParser();
+        StringBuilder text = new StringBuilder();
+        String typed = "9,10,X, M,1";
+        for (int i = 0; i < typed.length(); i++) {
+            edit(parser, text, text.length(), 0, typed.substring(i, i + 1));
+            assertSameAsReset(parser, text);
+        }
+        assertEquals(5, parser.getArrowCount());
+        assertEquals(30, parser.getPoints());
+    }
+
+    @Test
+    public void deletingCommaMergesFields() {
+        ScoreInputParser parser = new ScoreInputParser();
+        StringBuilder text = new StringBuilder("9,8,7");
+        parser.reset(text);
+        edit(parser, text, 1, 1, "");
+        // "98,7" : le premier champ fusionné est invalide
+        assertEquals(1, parser.getArrowCount());
+        assertTrue(parser.hasInvalidScore());
+        edit(parser, text, 1, 0, ",");
+        assertEquals(3, parser.getArrowCount());
+        assertEquals(24, parser.getPoints());
+        assertFalse(parser.hasInvalidScore());
+    }
+
+    @Test
+    public void insertingCommaSplitsField() {
+        ScoreInputParser parser = new ScoreInputParser();
+        StringBuilder text = new StringBuilder("10,X");
+        parser.reset(text);
+        edit(parser, text, 1, 0, ",");
+        // "1,0,X" : les champs suivants sont décalés d'une position
+        assertEquals("1, 0, X", parser.describeScores());
+        edit(parser, text, text.length() - 1, 1, "M");
+        assertEquals("1, 0, M", parser.describeScores());
+        assertSameAsReset(parser, text);
+    }
+
+    @Test
+    public void pastingAndReplacingAll() {
+        ScoreInputParser parser = new ScoreInputParser();
+        StringBuilder text = new StringBuilder("9,9");
+        parser.reset(text);
+        edit(parser, text, 0, text.length(), "X,X,X");
+        assertSameAsReset(parser, text);
+        edit(parser, text, 2, 0, "5,6,");
+        assertSameAsReset(parser, text);
+        edit(parser, text, 0, text.length(), "");
+        assertEquals(0, parser.getArrowCount());
+        assertSameAsReset(parser, text);
+    }
+
+    @Test
+    public void missedChangeFallsBackToReset() {
+        ScoreInputParser parser = new ScoreInputParser();
+        parser.reset("9,8");
+        // Longueurs incohérentes avec la saisie connue : relecture complète
+        parser.onTextChanged("X,X,X,X", 0, 0, 1);
+        assertEquals(4, parser.getArrowCount());
+        assertEquals(40, parser.getPoints());
+        parser.onTextChanged("7", 5, 3, 0);
+        assertEquals(1, parser.getArrowCount());
+        assertEquals(7, parser.getPoints());
+    }
+
+    @Test
+    public void randomEditsMatchReset() {
+        Random random = new Random(20);
+        for (int round = 0; round < 200; round++) {
+            ScoreInputParser parser = new ScoreInputParser();
+            StringBuilder text = new StringBuilder();
+            for (int step = 0; step < 200; step++) {
+                int start = random.nextInt(text.length() + 1);
+                int before = random.nextInt(4) == 0 ? random.nextInt(text.length() - start + 1)
+                        : Math.min(random.nextInt(3), text.length() - start);
+                StringBuilder inserted = new StringBuilder();
+                int count = random.nextInt(3) == 0 ? random.nextInt(8) : random.nextInt(2);
+                for (int i = 0; i < count; i++) {
+                    inserted.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+                }
+                edit(parser, text, start, before, inserted.toString());
+                assertSameAsReset(parser, text);
+            }
+        }
+    }
+}